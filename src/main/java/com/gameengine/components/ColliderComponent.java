@@ -0,0 +1,275 @@
+package com.gameengine.components;
+
+import com.gameengine.core.CollisionLayers;
+import com.gameengine.core.Component;
+import com.gameengine.math.CollisionUtils;
+
+/**
+ * Axis-aligned collision shape attached to a transform. The local box is stored as an
+ * offset from the transform position plus a size; world bounds are cached on {@link #updateBounds()}.
+ */
+public class ColliderComponent extends Component<ColliderComponent> {
+    public enum Shape {
+        BOX,
+        CIRCLE
+    }
+
+    private Shape shape;
+    private float offsetX;
+    private float offsetY;
+    private float width;
+    private float height;
+    private TransformComponent transform;
+    private int collisionIndex = -1;
+    private int layer;
+    private int mask = CollisionLayers.ALL;
+
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    // Bounds at the previous collision world update, used for swept tests
+    private float prevMinX;
+    private float prevMinY;
+    private float prevMaxX;
+    private float prevMaxY;
+    private boolean swept;
+    private boolean trigger;
+    private boolean staticShape;
+
+    public ColliderComponent(Shape shape, float offsetX, float offsetY, float width, float height) {
+        this.shape = shape;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+    }
+
+    public static ColliderComponent box(float offsetX, float offsetY, float width, float height) {
+        return new ColliderComponent(Shape.BOX, offsetX, offsetY, width, height);
+    }
+
+    /**
+     * Circle centered on the transform position.
+     */
+    public static ColliderComponent circle(float radius) {
+        return new ColliderComponent(Shape.CIRCLE, -radius, -radius, radius * 2, radius * 2);
+    }
+
+    @Override
+    public void initialize() {
+        transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+        updateBounds();
+    }
+
+    @Override
+    public void render() {
+    }
+
+    /**
+     * Recomputes the cached world bounds from the owner's transform.
+     *
+     * @return false if the owner has no transform
+     */
+    public boolean updateBounds() {
+        if (transform == null && owner != null) {
+            transform = owner.getComponent(TransformComponent.class);
+        }
+        if (transform == null) {
+            return false;
+        }
+        minX = transform.getX() + offsetX;
+        minY = transform.getY() + offsetY;
+        maxX = minX + width;
+        maxY = minY + height;
+        return true;
+    }
+
+    /**
+     * Remembers the current bounds as the start of the next sweep.
+     */
+    public void savePreviousBounds() {
+        prevMinX = minX;
+        prevMinY = minY;
+        prevMaxX = maxX;
+        prevMaxY = maxY;
+    }
+
+    /**
+     * Marks whether this collider is tested continuously from its previous to its current bounds.
+     */
+    public void setSwept(boolean swept) {
+        this.swept = swept;
+    }
+
+    public boolean isSwept() {
+        return swept;
+    }
+
+    public float getSweptMinX() {
+        return swept ? Math.min(prevMinX, minX) : minX;
+    }
+
+    public float getSweptMinY() {
+        return swept ? Math.min(prevMinY, minY) : minY;
+    }
+
+    public float getSweptMaxX() {
+        return swept ? Math.max(prevMaxX, maxX) : maxX;
+    }
+
+    public float getSweptMaxY() {
+        return swept ? Math.max(prevMaxY, maxY) : maxY;
+    }
+
+    /**
+     * Earliest contact between the two colliders over the last step, treating a non-swept collider as static.
+     *
+     * @return fraction of the step in [0, 1], or -1 if they never touch
+     */
+    public float timeOfImpact(ColliderComponent other) {
+        if (!swept) {
+            if (other.swept) {
+                return other.timeOfImpact(this);
+            }
+            return overlaps(other) ? 0f : -1f;
+        }
+        float halfW = width * 0.5f;
+        float halfH = height * 0.5f;
+        float startX = prevMinX + halfW;
+        float startY = prevMinY + halfH;
+        float dx = minX - prevMinX;
+        float dy = minY - prevMinY;
+        if (shape == Shape.CIRCLE) {
+            return CollisionUtils.sweptCircleAabb(startX, startY, dx, dy, halfW,
+                other.minX, other.minY, other.maxX, other.maxY);
+        }
+        // A moving box is a moving point against the other box grown by its half extents
+        return CollisionUtils.sweptCircleAabb(startX, startY, dx, dy, 0f,
+            other.minX - halfW, other.minY - halfH, other.maxX + halfW, other.maxY + halfH);
+    }
+
+    /**
+     * Strict overlap test between the cached bounds of two colliders.
+     */
+    public boolean overlaps(ColliderComponent other) {
+        return minX < other.maxX && maxX > other.minX && minY < other.maxY && maxY > other.minY;
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public float getRadius() {
+        return width * 0.5f;
+    }
+
+    public float getCenterX() {
+        return (minX + maxX) * 0.5f;
+    }
+
+    public float getCenterY() {
+        return (minY + maxY) * 0.5f;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    public void setSize(float width, float height) {
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+    }
+
+    public void setOffset(float offsetX, float offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    public float getOffsetX() {
+        return offsetX;
+    }
+
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    /**
+     * Triggers report contacts and events but are never pushed apart by the contact solver.
+     */
+    public void setTrigger(boolean trigger) {
+        this.trigger = trigger;
+    }
+
+    public boolean isTrigger() {
+        return trigger;
+    }
+
+    /**
+     * Static colliders are level geometry: unless they are triggers, they are baked into the
+     * physics system's {@link com.gameengine.core.ObstacleGrid} instead of entering the broadphase,
+     * and are expected not to move afterwards.
+     */
+    public void setStatic(boolean isStatic) {
+        this.staticShape = isStatic;
+    }
+
+    public boolean isStatic() {
+        return staticShape;
+    }
+
+    /**
+     * Collision layer (0-31) this collider belongs to, see {@link CollisionLayers}.
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    public void setLayer(int layer) {
+        CollisionLayers.bit(layer);
+        this.layer = layer;
+    }
+
+    /**
+     * Layers this collider accepts pairs with, on top of the global layer matrix.
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    public void setMask(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Slot assigned by the owning {@link com.gameengine.core.CollisionWorld}, or -1 when not registered.
+     */
+    public int getCollisionIndex() {
+        return collisionIndex;
+    }
+
+    public void setCollisionIndex(int collisionIndex) {
+        this.collisionIndex = collisionIndex;
+    }
+}
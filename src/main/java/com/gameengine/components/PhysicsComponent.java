@@ -8,8 +8,18 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     private Vector2 acceleration;
     private float mass;
     private float friction;
+    private float restitution;
     private boolean useGravity;
     private Vector2 gravity;
+    private boolean bullet;
+    private int bodyHandle = -1;
+    
+    // Sleeping: bodies slower than the threshold for timeToSleep seconds stop being integrated
+    private boolean allowSleep;
+    private float sleepVelocityThreshold;
+    private float timeToSleep;
+    private float sleepTimer;
+    private boolean sleeping;
     
     public PhysicsComponent() {
         this.velocity = new Vector2();
@@ -18,6 +28,9 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
         this.friction = 0.9f;
         this.useGravity = false;
         this.gravity = new Vector2(0, 9.8f);
+        this.allowSleep = true;
+        this.sleepVelocityThreshold = 2.0f;
+        this.timeToSleep = 0.5f;
     }
     
     public PhysicsComponent(float mass) {
@@ -36,29 +49,54 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     public void applyForce(Vector2 force) {
         if (mass > 0) {
             acceleration = acceleration.add(force.multiply(1.0f / mass));
+            wake();
         }
     }
     
     public void applyImpulse(Vector2 impulse) {
         if (mass > 0) {
             velocity = velocity.add(impulse.multiply(1.0f / mass));
+            wake();
         }
     }
     
     public void setVelocity(Vector2 velocity) {
-        this.velocity = new Vector2(velocity);
+        setVelocity(velocity.x, velocity.y);
     }
     
+    /**
+     * Sets the velocity; a sleeping body wakes up if the new speed is above its sleep threshold.
+     */
     public void setVelocity(float x, float y) {
-        this.velocity = new Vector2(x, y);
+        this.velocity.x = x;
+        this.velocity.y = y;
+        if (sleeping && x * x + y * y > sleepVelocityThreshold * sleepVelocityThreshold) {
+            wake();
+        }
+    }
+    
+    /**
+     * Velocity write-back from the physics step. Unlike {@link #setVelocity(float, float)} it never wakes the body.
+     */
+    public void storeVelocity(float x, float y) {
+        this.velocity.x = x;
+        this.velocity.y = y;
     }
     
     public void setAcceleration(Vector2 acceleration) {
         this.acceleration = new Vector2(acceleration);
+        if (acceleration.x != 0 || acceleration.y != 0) {
+            wake();
+        }
+    }
+    
+    public void clearAcceleration() {
+        this.acceleration.x = 0;
+        this.acceleration.y = 0;
     }
     
     public void addVelocity(Vector2 delta) {
-        this.velocity = velocity.add(delta);
+        setVelocity(velocity.x + delta.x, velocity.y + delta.y);
     }
     
     public void setGravity(Vector2 gravity) {
@@ -77,10 +115,29 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
         this.mass = Math.max(0.1f, mass);
     }
     
+    /**
+     * Bounciness used by the contact solver, 0 (no bounce) to 1 (elastic).
+     */
+    public void setRestitution(float restitution) {
+        this.restitution = Math.max(0, Math.min(1, restitution));
+    }
+    
+    public float getRestitution() {
+        return restitution;
+    }
+    
     public Vector2 getVelocity() {
         return new Vector2(velocity);
     }
     
+    public float getVelocityX() {
+        return velocity.x;
+    }
+    
+    public float getVelocityY() {
+        return velocity.y;
+    }
+    
     public Vector2 getAcceleration() {
         return new Vector2(acceleration);
     }
@@ -100,4 +157,102 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     public Vector2 getGravity() {
         return new Vector2(gravity);
     }
+    
+    /**
+     * Fast bodies flagged as bullets are tested with continuous (swept) collision.
+     */
+    public void setBullet(boolean bullet) {
+        this.bullet = bullet;
+    }
+    
+    public boolean isBullet() {
+        return bullet;
+    }
+    
+    /**
+     * Handle assigned by the physics thread's body store, or -1 when not registered.
+     */
+    public int getBodyHandle() {
+        return bodyHandle;
+    }
+    
+    public void setBodyHandle(int bodyHandle) {
+        this.bodyHandle = bodyHandle;
+    }
+    
+    public void wake() {
+        sleeping = false;
+        sleepTimer = 0;
+    }
+    
+    /**
+     * Puts the body to sleep and zeroes its motion. Ignored if sleeping is not allowed.
+     */
+    public void sleep() {
+        if (!allowSleep) return;
+        sleeping = true;
+        velocity.x = 0;
+        velocity.y = 0;
+        acceleration.x = 0;
+        acceleration.y = 0;
+    }
+    
+    public boolean isSleeping() {
+        return sleeping;
+    }
+    
+    /**
+     * Accumulates time spent below the sleep threshold, resetting when the body speeds up.
+     */
+    public void advanceSleepTimer(float deltaTime) {
+        float vx = velocity.x;
+        float vy = velocity.y;
+        if (allowSleep && vx * vx + vy * vy < sleepVelocityThreshold * sleepVelocityThreshold) {
+            sleepTimer += deltaTime;
+        } else {
+            sleepTimer = 0;
+        }
+    }
+    
+    public boolean isReadyToSleep() {
+        return allowSleep && sleepTimer >= timeToSleep;
+    }
+    
+    public void setAllowSleep(boolean allowSleep) {
+        this.allowSleep = allowSleep;
+        if (!allowSleep) {
+            wake();
+        }
+    }
+    
+    public boolean isAllowSleep() {
+        return allowSleep;
+    }
+    
+    public void setSleepVelocityThreshold(float threshold) {
+        this.sleepVelocityThreshold = Math.max(0, threshold);
+    }
+    
+    public float getSleepVelocityThreshold() {
+        return sleepVelocityThreshold;
+    }
+    
+    public void setTimeToSleep(float seconds) {
+        this.timeToSleep = Math.max(0, seconds);
+    }
+    
+    public float getTimeToSleep() {
+        return timeToSleep;
+    }
+    
+    /**
+     * Acceleration applied this step along X, including gravity when enabled.
+     */
+    public float getEffectiveAccelerationX() {
+        return useGravity ? acceleration.x + gravity.x : acceleration.x;
+    }
+    
+    public float getEffectiveAccelerationY() {
+        return useGravity ? acceleration.y + gravity.y : acceleration.y;
+    }
 }
@@ -0,0 +1,90 @@
+package com.gameengine.components;
+
+import com.gameengine.core.Component;
+
+/**
+ * Crowd steering settings for an agent moved by {@link com.gameengine.core.SteeringSystem}. The
+ * system seeks the shared target, slows down inside the arrival radius, pushes away from neighbors
+ * inside the separation radius and pulls towards the center of neighbors inside the cohesion
+ * radius, then writes the blended velocity to the agent's {@link PhysicsComponent}.
+ */
+public class SteeringComponent extends Component<SteeringComponent> {
+    private float maxSpeed;
+    private float arrivalRadius;
+    private float separationRadius;
+    private float separationWeight;
+    private float cohesionRadius;
+    private float cohesionWeight;
+
+    public SteeringComponent(float maxSpeed) {
+        this.maxSpeed = Math.max(0f, maxSpeed);
+        this.separationRadius = 24f;
+        this.separationWeight = 1f;
+        this.cohesionRadius = 64f;
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void render() {
+    }
+
+    public float getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(float maxSpeed) {
+        this.maxSpeed = Math.max(0f, maxSpeed);
+    }
+
+    /**
+     * Distance from the target inside which the agent slows down linearly; 0 seeks at full speed.
+     */
+    public float getArrivalRadius() {
+        return arrivalRadius;
+    }
+
+    public void setArrivalRadius(float arrivalRadius) {
+        this.arrivalRadius = Math.max(0f, arrivalRadius);
+    }
+
+    public float getSeparationRadius() {
+        return separationRadius;
+    }
+
+    public void setSeparationRadius(float separationRadius) {
+        this.separationRadius = Math.max(0f, separationRadius);
+    }
+
+    /**
+     * Strength of the push away from close neighbors, relative to seeking.
+     */
+    public float getSeparationWeight() {
+        return separationWeight;
+    }
+
+    public void setSeparationWeight(float separationWeight) {
+        this.separationWeight = separationWeight;
+    }
+
+    public float getCohesionRadius() {
+        return cohesionRadius;
+    }
+
+    public void setCohesionRadius(float cohesionRadius) {
+        this.cohesionRadius = Math.max(0f, cohesionRadius);
+    }
+
+    /**
+     * Strength of the pull towards the neighbors' center, relative to seeking; 0 disables cohesion.
+     */
+    public float getCohesionWeight() {
+        return cohesionWeight;
+    }
+
+    public void setCohesionWeight(float cohesionWeight) {
+        this.cohesionWeight = cohesionWeight;
+    }
+}
@@ -65,6 +65,19 @@ public class TransformComponent extends Component<TransformComponent> {
         this.position = new Vector2(position);
     }
     
+    public void setPosition(float x, float y) {
+        this.position.x = x;
+        this.position.y = y;
+    }
+    
+    public float getX() {
+        return position.x;
+    }
+    
+    public float getY() {
+        return position.y;
+    }
+    
     public Vector2 getScale() {
         return new Vector2(scale);
     }
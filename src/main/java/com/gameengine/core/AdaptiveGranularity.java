@@ -0,0 +1,150 @@
+package com.gameengine.core;
+
+/**
+ * Chooses how a data-parallel loop is split, based on what earlier runs of it cost.
+ * <p>
+ * Every run reports its item count, wall time and the time its tasks spent working. From these
+ * the scheduler keeps smoothed estimates of the cost per item and of the fixed hand-off cost of
+ * going parallel (submitting, waking workers, joining). Runs too small to win back that hand-off
+ * stay on the calling thread; larger runs are cut into tasks of roughly {@code targetTaskNanos}
+ * of work each. While the loop stays sequential near the threshold, a parallel run is retried now
+ * and then so a pessimistic hand-off estimate can correct itself.
+ */
+public class AdaptiveGranularity {
+    public enum Path {
+        IDLE,
+        SEQUENTIAL,
+        PARALLEL
+    }
+
+    private static final double SMOOTHING = 0.2;
+    private static final long INITIAL_DISPATCH_NANOS = 20_000L;
+    private static final int MAX_TASKS_PER_WORKER = 4;
+    private static final int PROBE_INTERVAL = 120;
+
+    private final int parallelism;
+    private long targetTaskNanos = 50_000L;
+    private double nanosPerItem = -1.0;
+    private double dispatchNanos = INITIAL_DISPATCH_NANOS;
+    private int sequentialRunsNearThreshold;
+
+    private Path lastPath = Path.IDLE;
+    private int lastTaskCount;
+    private int lastItemCount;
+    private long lastElapsedNanos;
+
+    /**
+     * @param parallelism workers that can actually run at once; 1 or less always runs sequentially
+     */
+    public AdaptiveGranularity(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Number of tasks to split {@code items} into: 0 for nothing to do, 1 to run on the calling thread.
+     */
+    public int plan(int items) {
+        if (items <= 0) return 0;
+        if (parallelism == 1 || nanosPerItem < 0.0) return 1;
+
+        int threshold = getSequentialThreshold();
+        if (items < threshold) {
+            if (items * 2L < threshold || ++sequentialRunsNearThreshold < PROBE_INTERVAL) {
+                return 1;
+            }
+        }
+        sequentialRunsNearThreshold = 0;
+
+        long itemsPerTask = Math.max(1L, (long) (targetTaskNanos / nanosPerItem));
+        long tasks = (items + itemsPerTask - 1) / itemsPerTask;
+        tasks = Math.max(2L, Math.min(tasks, (long) parallelism * MAX_TASKS_PER_WORKER));
+        return (int) Math.min(tasks, items);
+    }
+
+    /**
+     * Feeds back a finished run.
+     *
+     * @param tasks        task count returned by {@link #plan(int)}
+     * @param elapsedNanos wall time of the whole run, including hand-off
+     * @param workNanos    time summed over all tasks spent on the items themselves
+     */
+    public void record(int items, int tasks, long elapsedNanos, long workNanos) {
+        lastItemCount = items;
+        lastTaskCount = tasks;
+        lastElapsedNanos = elapsedNanos;
+        lastPath = tasks == 0 ? Path.IDLE : tasks == 1 ? Path.SEQUENTIAL : Path.PARALLEL;
+        if (items <= 0) return;
+
+        double perItem = (double) workNanos / items;
+        nanosPerItem = nanosPerItem < 0.0 ? perItem : smooth(nanosPerItem, perItem);
+        if (tasks > 1) {
+            double ideal = (double) workNanos / Math.min(tasks, parallelism);
+            dispatchNanos = smooth(dispatchNanos, Math.max(0.0, elapsedNanos - ideal));
+        }
+    }
+
+    private static double smooth(double current, double sample) {
+        return current + (sample - current) * SMOOTHING;
+    }
+
+    /**
+     * Smallest item count for which splitting is expected to beat the calling thread alone, i.e.
+     * where the work saved by the other workers exceeds the hand-off cost.
+     */
+    public int getSequentialThreshold() {
+        if (parallelism == 1 || nanosPerItem <= 0.0) return Integer.MAX_VALUE;
+        double saved = nanosPerItem * (1.0 - 1.0 / parallelism);
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(dispatchNanos / saved));
+    }
+
+    /**
+     * Work each parallel task should get, in nanoseconds.
+     */
+    public void setTargetTaskNanos(long nanos) {
+        if (nanos <= 0L) {
+            throw new IllegalArgumentException("nanos must be positive: " + nanos);
+        }
+        this.targetTaskNanos = nanos;
+    }
+
+    public long getTargetTaskNanos() {
+        return targetTaskNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Smoothed cost of one item, or a negative value before the first run.
+     */
+    public double getNanosPerItem() {
+        return nanosPerItem;
+    }
+
+    /**
+     * Smoothed fixed cost of a parallel run on top of its divided work.
+     */
+    public double getDispatchNanos() {
+        return dispatchNanos;
+    }
+
+    /**
+     * How the last recorded run executed.
+     */
+    public Path getLastPath() {
+        return lastPath;
+    }
+
+    public int getLastTaskCount() {
+        return lastTaskCount;
+    }
+
+    public int getLastItemCount() {
+        return lastItemCount;
+    }
+
+    public long getLastElapsedNanos() {
+        return lastElapsedNanos;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gameengine.core;
+
+/**
+ * Coarse collision stage: tracks one axis-aligned box (proxy) per collider and reports
+ * candidate pairs whose boxes overlap. Ids passed in and reported back are caller-defined user ids.
+ */
+public interface Broadphase {
+    int createProxy(float minX, float minY, float maxX, float maxY, int userId);
+
+    void moveProxy(int proxyId, float minX, float minY, float maxX, float maxY);
+
+    void destroyProxy(int proxyId);
+
+    /**
+     * Replaces the contents of {@code pairs} with every pair of user ids whose boxes overlap
+     * and which pass the pair filter.
+     */
+    void computePairs(PairBuffer pairs);
+
+    /**
+     * Filter applied to candidate pairs before they are reported; null accepts every pair.
+     */
+    void setPairFilter(PairFilter filter);
+
+    /**
+     * Writes user ids of proxies overlapping the box into {@code out}.
+     *
+     * @return number of ids written (at most {@code out.length})
+     */
+    int queryAabb(float minX, float minY, float maxX, float maxY, int[] out);
+
+    /**
+     * Writes user ids of proxies whose boxes the segment from (x0, y0) to (x1, y1) crosses, in no particular order.
+     *
+     * @return number of ids written (at most {@code out.length})
+     */
+    int raycast(float x0, float y0, float x1, float y1, int[] out);
+
+    int getProxyCount();
+
+    void clear();
+}
@@ -0,0 +1,22 @@
+package com.gameengine.core;
+
+/**
+ * Broadphase implementations a scene can select for its {@link CollisionWorld}.
+ */
+public enum BroadphaseType {
+    SPATIAL_HASH,
+    DYNAMIC_TREE,
+    SWEEP_AND_PRUNE;
+
+    public Broadphase create() {
+        switch (this) {
+            case DYNAMIC_TREE:
+                return new DynamicTreeBroadphase();
+            case SWEEP_AND_PRUNE:
+                return new SweepAndPruneBroadphase();
+            case SPATIAL_HASH:
+            default:
+                return new SpatialHashBroadphase();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+
+import java.util.Arrays;
+
+/**
+ * One tick's batch of collision state changes, produced by {@link PhysicsSystem} and handed to every
+ * {@link CollisionListener} of the scene. A pair gets ENTER on the first tick its colliders touch,
+ * STAY on each following tick they still touch and EXIT on the first tick they no longer do (including
+ * when one of them is removed). Events are ordered by collider slot pair, so the order is stable.
+ * Exit events carry zero normal and depth.
+ */
+public class CollisionEvents {
+    public enum Type {
+        ENTER,
+        STAY,
+        EXIT
+    }
+
+    private Type[] types;
+    private ColliderComponent[] collidersA;
+    private ColliderComponent[] collidersB;
+    private float[] normalX;
+    private float[] normalY;
+    private float[] depth;
+    private float[] toi;
+    private int size;
+    private int enterCount;
+    private int exitCount;
+
+    public CollisionEvents() {
+        this(64);
+    }
+
+    public CollisionEvents(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        types = new Type[capacity];
+        collidersA = new ColliderComponent[capacity];
+        collidersB = new ColliderComponent[capacity];
+        normalX = new float[capacity];
+        normalY = new float[capacity];
+        depth = new float[capacity];
+        toi = new float[capacity];
+    }
+
+    public void add(Type type, ColliderComponent a, ColliderComponent b,
+                    float nx, float ny, float penetration, float timeOfImpact) {
+        if (size == types.length) {
+            grow(size * 2);
+        }
+        types[size] = type;
+        collidersA[size] = a;
+        collidersB[size] = b;
+        normalX[size] = nx;
+        normalY[size] = ny;
+        depth[size] = penetration;
+        toi[size] = timeOfImpact;
+        size++;
+        if (type == Type.ENTER) {
+            enterCount++;
+        } else if (type == Type.EXIT) {
+            exitCount++;
+        }
+    }
+
+    public Type getType(int index) {
+        return types[index];
+    }
+
+    public ColliderComponent getColliderA(int index) {
+        return collidersA[index];
+    }
+
+    public ColliderComponent getColliderB(int index) {
+        return collidersB[index];
+    }
+
+    /**
+     * Contact normal, pointing from collider A to collider B.
+     */
+    public float getNormalX(int index) {
+        return normalX[index];
+    }
+
+    public float getNormalY(int index) {
+        return normalY[index];
+    }
+
+    public float getDepth(int index) {
+        return depth[index];
+    }
+
+    public float getToi(int index) {
+        return toi[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getEnterCount() {
+        return enterCount;
+    }
+
+    public int getStayCount() {
+        return size - enterCount - exitCount;
+    }
+
+    public int getExitCount() {
+        return exitCount;
+    }
+
+    public void clear() {
+        // Drop component references so removed objects are not kept alive by the batch
+        Arrays.fill(collidersA, 0, size, null);
+        Arrays.fill(collidersB, 0, size, null);
+        size = 0;
+        enterCount = 0;
+        exitCount = 0;
+    }
+
+    private void grow(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        collidersA = Arrays.copyOf(collidersA, capacity);
+        collidersB = Arrays.copyOf(collidersB, capacity);
+        normalX = Arrays.copyOf(normalX, capacity);
+        normalY = Arrays.copyOf(normalY, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        toi = Arrays.copyOf(toi, capacity);
+    }
+}
@@ -0,0 +1,101 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Global layer interaction matrix. Each collider sits on one of 32 layers; two colliders can only
+ * form a pair if their layers are allowed to interact here and each one's own mask accepts the other's
+ * layer. The check runs inside the broadphase, before any narrowphase or gameplay work.
+ * By default every layer interacts with every other.
+ * <p>
+ * A second matrix decides which interacting layers the {@link ContactSolver} pushes apart. Pairs
+ * excluded there still produce contacts for gameplay but the bodies are free to overlap.
+ */
+public final class CollisionLayers {
+    public static final int LAYER_COUNT = 32;
+    public static final int ALL = -1;
+
+    private static final int[] matrix = new int[LAYER_COUNT];
+    private static final int[] responseMatrix = new int[LAYER_COUNT];
+
+    static {
+        reset();
+    }
+
+    private CollisionLayers() {
+        // Utility class
+    }
+
+    public static int bit(int layer) {
+        return 1 << checkLayer(layer);
+    }
+
+    /**
+     * Enables or disables interaction between two layers (symmetric).
+     */
+    public static synchronized void setCollision(int layerA, int layerB, boolean collide) {
+        int a = checkLayer(layerA);
+        int b = checkLayer(layerB);
+        if (collide) {
+            matrix[a] |= 1 << b;
+            matrix[b] |= 1 << a;
+        } else {
+            matrix[a] &= ~(1 << b);
+            matrix[b] &= ~(1 << a);
+        }
+    }
+
+    /**
+     * Enables or disables the contact solver's response between two layers (symmetric).
+     */
+    public static synchronized void setResponse(int layerA, int layerB, boolean respond) {
+        int a = checkLayer(layerA);
+        int b = checkLayer(layerB);
+        if (respond) {
+            responseMatrix[a] |= 1 << b;
+            responseMatrix[b] |= 1 << a;
+        } else {
+            responseMatrix[a] &= ~(1 << b);
+            responseMatrix[b] &= ~(1 << a);
+        }
+    }
+
+    /**
+     * Disables every interaction of a layer, e.g. for purely decorative objects.
+     */
+    public static synchronized void ignoreAll(int layer) {
+        for (int other = 0; other < LAYER_COUNT; other++) {
+            setCollision(layer, other, false);
+        }
+    }
+
+    public static boolean canCollide(int layerA, int layerB) {
+        return (matrix[checkLayer(layerA)] & (1 << checkLayer(layerB))) != 0;
+    }
+
+    /**
+     * Whether contacts between the two layers are resolved by the contact solver.
+     */
+    public static boolean hasResponse(int layerA, int layerB) {
+        return (responseMatrix[checkLayer(layerA)] & (1 << checkLayer(layerB))) != 0;
+    }
+
+    /**
+     * Bit set of the layers the given layer interacts with.
+     */
+    public static int getMask(int layer) {
+        return matrix[checkLayer(layer)];
+    }
+
+    public static synchronized void reset() {
+        Arrays.fill(matrix, ALL);
+        Arrays.fill(responseMatrix, ALL);
+    }
+
+    private static int checkLayer(int layer) {
+        if (layer < 0 || layer >= LAYER_COUNT) {
+            throw new IllegalArgumentException("Collision layer out of range: " + layer);
+        }
+        return layer;
+    }
+}
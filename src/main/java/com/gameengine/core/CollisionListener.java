@@ -0,0 +1,9 @@
+package com.gameengine.core;
+
+/**
+ * Receives the collision events of each physics tick as one batch.
+ */
+@FunctionalInterface
+public interface CollisionListener {
+    void onCollisionEvents(CollisionEvents events);
+}
@@ -0,0 +1,240 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Mirrors the scene's {@link ColliderComponent}s into a {@link Broadphase} and keeps the
+ * candidate pair list for the current tick. Colliders are addressed by a stable slot index
+ * (the broadphase user id) for as long as they stay registered. Pairs are kept sorted so
+ * gameplay that consumes them behaves the same whichever broadphase produced them. The
+ * {@link Narrowphase} then turns pairs into contacts, in parallel when an executor is set.
+ * Pairs are filtered by collision layer inside the broadphase, see {@link CollisionLayers}.
+ */
+public class CollisionWorld {
+    private final Broadphase broadphase;
+    private final PairBuffer pairs;
+    private final Narrowphase narrowphase;
+    private final ContactBuffer contacts;
+    private ExecutorService executor;
+    private final List<ColliderComponent> colliders;
+    private int[] proxyIds;
+    private int[] seenTick;
+    private int[] slotLayerBits;
+    private int[] slotMask;
+    private int[] freeSlots;
+    private int freeCount;
+    private int tick;
+    // Solid static colliders seen by the last update, kept out of the broadphase
+    private List<ColliderComponent> staticColliders = new ArrayList<>();
+    private List<ColliderComponent> nextStaticColliders = new ArrayList<>();
+    private int staticVersion;
+
+    public CollisionWorld() {
+        this(new SpatialHashBroadphase());
+    }
+
+    public CollisionWorld(Broadphase broadphase) {
+        this.broadphase = broadphase;
+        this.pairs = new PairBuffer();
+        this.narrowphase = new Narrowphase();
+        this.contacts = new ContactBuffer();
+        this.colliders = new ArrayList<>();
+        this.proxyIds = new int[64];
+        this.seenTick = new int[64];
+        this.slotLayerBits = new int[64];
+        this.slotMask = new int[64];
+        this.freeSlots = new int[16];
+        broadphase.setPairFilter(this::shouldCollide);
+    }
+
+    /**
+     * Syncs collider bounds from the scene's transforms, unregisters colliders whose objects are
+     * gone or inactive, and recomputes candidate pairs. Bodies flagged as bullets are registered
+     * with their swept bounds (previous and current position), so pairs along their path are kept
+     * for a time-of-impact test. Finishes with the narrowphase, so {@link #getContacts()} holds
+     * the pairs that actually touch. Static, non-trigger colliders are only collected, see
+     * {@link #getStaticColliders()}.
+     */
+    public void update(Scene scene) {
+        tick++;
+        nextStaticColliders.clear();
+        for (GameObject obj : scene.getGameObjects()) {
+            if (!obj.isActive()) continue;
+            ColliderComponent collider = obj.getComponent(ColliderComponent.class);
+            if (collider == null || !collider.isEnabled()) continue;
+            if (collider.isStatic() && !collider.isTrigger()) {
+                if (collider.updateBounds()) {
+                    nextStaticColliders.add(collider);
+                }
+                continue;
+            }
+
+            int slot = collider.getCollisionIndex();
+            boolean registered = slot >= 0 && slot < colliders.size() && colliders.get(slot) == collider;
+            collider.savePreviousBounds();
+            if (!collider.updateBounds()) continue;
+            if (!registered) {
+                // Nothing to sweep from on the first tick
+                collider.savePreviousBounds();
+            }
+
+            PhysicsComponent physics = obj.getComponent(PhysicsComponent.class);
+            collider.setSwept(physics != null && physics.isBullet());
+
+            float minX = collider.getSweptMinX();
+            float minY = collider.getSweptMinY();
+            float maxX = collider.getSweptMaxX();
+            float maxY = collider.getSweptMaxY();
+            if (registered) {
+                broadphase.moveProxy(proxyIds[slot], minX, minY, maxX, maxY);
+            } else {
+                slot = register(collider, minX, minY, maxX, maxY);
+            }
+            seenTick[slot] = tick;
+            slotLayerBits[slot] = CollisionLayers.bit(collider.getLayer());
+            slotMask[slot] = collider.getMask() & CollisionLayers.getMask(collider.getLayer());
+        }
+
+        for (int slot = 0; slot < colliders.size(); slot++) {
+            if (colliders.get(slot) != null && seenTick[slot] != tick) {
+                unregister(slot);
+            }
+        }
+
+        if (!nextStaticColliders.equals(staticColliders)) {
+            staticVersion++;
+        }
+        List<ColliderComponent> previous = staticColliders;
+        staticColliders = nextStaticColliders;
+        nextStaticColliders = previous;
+
+        broadphase.computePairs(pairs);
+        pairs.sort();
+        narrowphase.run(this, pairs, contacts, executor);
+    }
+
+    /**
+     * Layer filter handed to the broadphase: both colliders must accept each other's layer.
+     */
+    private boolean shouldCollide(int slotA, int slotB) {
+        return (slotLayerBits[slotA] & slotMask[slotB]) != 0 && (slotLayerBits[slotB] & slotMask[slotA]) != 0;
+    }
+
+    /**
+     * Candidate pairs (collider slots) whose bounds overlap.
+     */
+    public PairBuffer getPairs() {
+        return pairs;
+    }
+
+    /**
+     * Contacts of the last update, in the same order as {@link #getPairs()}.
+     */
+    public ContactBuffer getContacts() {
+        return contacts;
+    }
+
+    /**
+     * Workers used by the narrowphase; null runs it on the updating thread.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Solid static colliders present at the last update, in scene order.
+     */
+    public List<ColliderComponent> getStaticColliders() {
+        return staticColliders;
+    }
+
+    /**
+     * Changes whenever the set of static colliders changes, so their consumers know to rebuild.
+     */
+    public int getStaticVersion() {
+        return staticVersion;
+    }
+
+    public ColliderComponent getCollider(int slot) {
+        return colliders.get(slot);
+    }
+
+    /**
+     * Upper bound (exclusive) of slot indices currently in use.
+     */
+    public int getSlotCount() {
+        return colliders.size();
+    }
+
+    public int getColliderCount() {
+        return broadphase.getProxyCount();
+    }
+
+    public Broadphase getBroadphase() {
+        return broadphase;
+    }
+
+    /**
+     * Slot indices of colliders whose bounds (as of the last update) overlap the box.
+     */
+    public int queryAabb(float minX, float minY, float maxX, float maxY, int[] out) {
+        return broadphase.queryAabb(minX, minY, maxX, maxY, out);
+    }
+
+    public void clear() {
+        for (ColliderComponent collider : colliders) {
+            if (collider != null) {
+                collider.setCollisionIndex(-1);
+            }
+        }
+        colliders.clear();
+        freeCount = 0;
+        if (!staticColliders.isEmpty()) {
+            staticColliders.clear();
+            staticVersion++;
+        }
+        pairs.clear();
+        contacts.clear();
+        broadphase.clear();
+    }
+
+    private int register(ColliderComponent collider, float minX, float minY, float maxX, float maxY) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+            colliders.set(slot, collider);
+        } else {
+            slot = colliders.size();
+            colliders.add(collider);
+            if (slot == proxyIds.length) {
+                proxyIds = Arrays.copyOf(proxyIds, slot * 2);
+                seenTick = Arrays.copyOf(seenTick, slot * 2);
+                slotLayerBits = Arrays.copyOf(slotLayerBits, slot * 2);
+                slotMask = Arrays.copyOf(slotMask, slot * 2);
+            }
+        }
+        proxyIds[slot] = broadphase.createProxy(minX, minY, maxX, maxY, slot);
+        collider.setCollisionIndex(slot);
+        return slot;
+    }
+
+    private void unregister(int slot) {
+        ColliderComponent collider = colliders.get(slot);
+        broadphase.destroyProxy(proxyIds[slot]);
+        colliders.set(slot, null);
+        if (collider.getCollisionIndex() == slot) {
+            collider.setCollisionIndex(-1);
+        }
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+}
@@ -0,0 +1,105 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Growable structure-of-arrays list of contacts produced by the {@link Narrowphase}. Each contact
+ * refers to two collider slots of a {@link CollisionWorld} with {@code slotA < slotB}; the normal
+ * points from A to B, depth is the penetration along it and toi the fraction of the step at which
+ * the colliders first touched (0 for resting overlaps).
+ */
+public class ContactBuffer {
+    private int[] slotA;
+    private int[] slotB;
+    private float[] normalX;
+    private float[] normalY;
+    private float[] depth;
+    private float[] toi;
+    private int size;
+
+    public ContactBuffer() {
+        this(64);
+    }
+
+    public ContactBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        slotA = new int[capacity];
+        slotB = new int[capacity];
+        normalX = new float[capacity];
+        normalY = new float[capacity];
+        depth = new float[capacity];
+        toi = new float[capacity];
+    }
+
+    public void add(int a, int b, float nx, float ny, float penetration, float timeOfImpact) {
+        if (size == slotA.length) {
+            grow(size * 2);
+        }
+        slotA[size] = a;
+        slotB[size] = b;
+        normalX[size] = nx;
+        normalY[size] = ny;
+        depth[size] = penetration;
+        toi[size] = timeOfImpact;
+        size++;
+    }
+
+    /**
+     * Appends every contact of another buffer, preserving its order.
+     */
+    public void addAll(ContactBuffer other) {
+        int n = other.size;
+        if (n == 0) return;
+        if (size + n > slotA.length) {
+            grow(Math.max(size + n, slotA.length * 2));
+        }
+        System.arraycopy(other.slotA, 0, slotA, size, n);
+        System.arraycopy(other.slotB, 0, slotB, size, n);
+        System.arraycopy(other.normalX, 0, normalX, size, n);
+        System.arraycopy(other.normalY, 0, normalY, size, n);
+        System.arraycopy(other.depth, 0, depth, size, n);
+        System.arraycopy(other.toi, 0, toi, size, n);
+        size += n;
+    }
+
+    public int getSlotA(int index) {
+        return slotA[index];
+    }
+
+    public int getSlotB(int index) {
+        return slotB[index];
+    }
+
+    public float getNormalX(int index) {
+        return normalX[index];
+    }
+
+    public float getNormalY(int index) {
+        return normalY[index];
+    }
+
+    public float getDepth(int index) {
+        return depth[index];
+    }
+
+    public float getToi(int index) {
+        return toi[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private void grow(int capacity) {
+        slotA = Arrays.copyOf(slotA, capacity);
+        slotB = Arrays.copyOf(slotB, capacity);
+        normalX = Arrays.copyOf(normalX, capacity);
+        normalY = Arrays.copyOf(normalY, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        toi = Arrays.copyOf(toi, capacity);
+    }
+}
@@ -0,0 +1,367 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Sequential-impulse contact solver. Non-trigger contacts between a body and another body or a
+ * static collider (one without an enabled {@link PhysicsComponent}) become non-penetration
+ * constraints with restitution, followed by one pass of position correction. Layer pairs without
+ * a response in {@link CollisionLayers#hasResponse} are skipped.
+ * <p>
+ * Constraints are greedily graph-colored so that no two constraints of the same color touch the
+ * same dynamic body. Within a color every constraint can therefore be solved concurrently without
+ * locks; colors are processed one after another. Coloring follows contact order, which is sorted,
+ * so results do not depend on thread scheduling. Constraints that do not fit in the available
+ * colors are solved sequentially after the colored batches.
+ */
+public class ContactSolver {
+    private static final int MAX_COLORS = 64;
+    private static final int MIN_CONSTRAINTS_PER_CHUNK = 64;
+    private static final int STATIC = -1;
+
+    private int iterations = 8;
+    private float restitutionThreshold = 20f;
+    private float penetrationSlop = 0.5f;
+    private float correctionFactor = 0.8f;
+
+    // Bodies touched by this tick's constraints
+    private PhysicsComponent[] bodyPhysics = new PhysicsComponent[64];
+    private TransformComponent[] bodyTransform = new TransformComponent[64];
+    private float[] invMass = new float[64];
+    private float[] restitution = new float[64];
+    private float[] velX = new float[64];
+    private float[] velY = new float[64];
+    private float[] correctionX = new float[64];
+    private float[] correctionY = new float[64];
+    private long[] colorMask = new long[64];
+    private int bodyCount;
+
+    private int[] slotBody = new int[64];
+    private int[] slotStamp = new int[64];
+    private int stamp;
+
+    // Constraints (structure of arrays) and their color-sorted order
+    private int[] bodyA = new int[64];
+    private int[] bodyB = new int[64];
+    private float[] normalX = new float[64];
+    private float[] normalY = new float[64];
+    private float[] depth = new float[64];
+    private float[] effectiveMass = new float[64];
+    private float[] bias = new float[64];
+    private float[] accumulated = new float[64];
+    private int[] color = new int[64];
+    private int[] order = new int[64];
+    private final int[] colorStart = new int[MAX_COLORS + 2];
+    private int constraintCount;
+    private int colorCount;
+
+    private final Future<?>[] futures;
+    private final int maxChunks;
+
+    public ContactSolver() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public ContactSolver(int maxChunks) {
+        this.maxChunks = Math.max(1, maxChunks);
+        this.futures = new Future<?>[this.maxChunks];
+    }
+
+    /**
+     * Resolves the contacts of the world's last update, writing velocities and corrected positions back.
+     *
+     * @param executor workers for large color batches, or null to solve on the calling thread
+     */
+    public void solve(CollisionWorld world, ExecutorService executor) {
+        buildConstraints(world);
+        if (constraintCount == 0) {
+            clearBodies();
+            return;
+        }
+        colorConstraints();
+
+        for (int it = 0; it < iterations; it++) {
+            forEachBatch(executor, false);
+        }
+        forEachBatch(executor, true);
+
+        for (int b = 0; b < bodyCount; b++) {
+            bodyPhysics[b].storeVelocity(velX[b], velY[b]);
+            TransformComponent transform = bodyTransform[b];
+            if (transform != null && (correctionX[b] != 0f || correctionY[b] != 0f)) {
+                transform.setPosition(transform.getX() + correctionX[b], transform.getY() + correctionY[b]);
+            }
+        }
+        clearBodies();
+    }
+
+    private void buildConstraints(CollisionWorld world) {
+        constraintCount = 0;
+        bodyCount = 0;
+        if (++stamp == 0) {
+            Arrays.fill(slotStamp, 0);
+            stamp = 1;
+        }
+        int slotCount = world.getSlotCount();
+        if (slotBody.length < slotCount) {
+            int capacity = Math.max(slotCount, slotBody.length * 2);
+            slotBody = Arrays.copyOf(slotBody, capacity);
+            slotStamp = Arrays.copyOf(slotStamp, capacity);
+        }
+
+        ContactBuffer contacts = world.getContacts();
+        for (int i = 0; i < contacts.size(); i++) {
+            int slotA = contacts.getSlotA(i);
+            int slotB = contacts.getSlotB(i);
+            ColliderComponent colliderA = world.getCollider(slotA);
+            ColliderComponent colliderB = world.getCollider(slotB);
+            if (colliderA == null || colliderB == null || colliderA.isTrigger() || colliderB.isTrigger()) continue;
+            if (!CollisionLayers.hasResponse(colliderA.getLayer(), colliderB.getLayer())) continue;
+            int a = bodyFor(slotA, colliderA);
+            int b = bodyFor(slotB, colliderB);
+            if (a == STATIC && b == STATIC) continue;
+            float inverseMassSum = (a == STATIC ? 0f : invMass[a]) + (b == STATIC ? 0f : invMass[b]);
+            if (inverseMassSum <= 0f) continue;
+
+            if (constraintCount == bodyA.length) {
+                growConstraints(constraintCount * 2);
+            }
+            int c = constraintCount++;
+            float nx = contacts.getNormalX(i);
+            float ny = contacts.getNormalY(i);
+            bodyA[c] = a;
+            bodyB[c] = b;
+            normalX[c] = nx;
+            normalY[c] = ny;
+            depth[c] = contacts.getDepth(i);
+            effectiveMass[c] = 1f / inverseMassSum;
+            accumulated[c] = 0f;
+
+            // Bounce only on impacts faster than the threshold so resting contacts settle
+            float vn = relativeNormalVelocity(a, b, nx, ny);
+            float e = Math.max(a == STATIC ? 0f : restitution[a], b == STATIC ? 0f : restitution[b]);
+            bias[c] = vn < -restitutionThreshold ? -e * vn : 0f;
+        }
+    }
+
+    private int bodyFor(int slot, ColliderComponent collider) {
+        if (slotStamp[slot] == stamp) {
+            return slotBody[slot];
+        }
+        slotStamp[slot] = stamp;
+        GameObject owner = collider.getOwner();
+        PhysicsComponent physics = owner != null ? owner.getComponent(PhysicsComponent.class) : null;
+        if (physics == null || !physics.isEnabled() || physics.getMass() <= 0f) {
+            slotBody[slot] = STATIC;
+            return STATIC;
+        }
+        if (bodyCount == bodyPhysics.length) {
+            growBodies(bodyCount * 2);
+        }
+        int b = bodyCount++;
+        bodyPhysics[b] = physics;
+        bodyTransform[b] = owner.getComponent(TransformComponent.class);
+        invMass[b] = 1f / physics.getMass();
+        restitution[b] = physics.getRestitution();
+        velX[b] = physics.getVelocityX();
+        velY[b] = physics.getVelocityY();
+        correctionX[b] = 0f;
+        correctionY[b] = 0f;
+        colorMask[b] = 0L;
+        slotBody[slot] = b;
+        return b;
+    }
+
+    /**
+     * Greedy coloring in contact order: each constraint takes the lowest color unused by both of its
+     * dynamic bodies, then constraints are counting-sorted by color.
+     */
+    private void colorConstraints() {
+        Arrays.fill(colorStart, 0);
+        colorCount = 0;
+        for (int c = 0; c < constraintCount; c++) {
+            int a = bodyA[c];
+            int b = bodyB[c];
+            long used = (a == STATIC ? 0L : colorMask[a]) | (b == STATIC ? 0L : colorMask[b]);
+            int k = Long.numberOfTrailingZeros(~used);
+            if (k >= MAX_COLORS) {
+                k = MAX_COLORS;
+            } else {
+                if (a != STATIC) colorMask[a] |= 1L << k;
+                if (b != STATIC) colorMask[b] |= 1L << k;
+                colorCount = Math.max(colorCount, k + 1);
+            }
+            color[c] = k;
+            colorStart[k + 1]++;
+        }
+        for (int k = 0; k <= MAX_COLORS; k++) {
+            colorStart[k + 1] += colorStart[k];
+        }
+        // colorStart doubles as the write cursor, then is shifted back
+        for (int c = 0; c < constraintCount; c++) {
+            order[colorStart[color[c]]++] = c;
+        }
+        for (int k = MAX_COLORS; k > 0; k--) {
+            colorStart[k] = colorStart[k - 1];
+        }
+        colorStart[0] = 0;
+    }
+
+    private void forEachBatch(ExecutorService executor, boolean positions) {
+        for (int k = 0; k < colorCount; k++) {
+            runBatch(colorStart[k], colorStart[k + 1], executor, positions);
+        }
+        // Overflow constraints share bodies with every color, so they run alone
+        solveRange(colorStart[MAX_COLORS], colorStart[MAX_COLORS + 1], positions);
+    }
+
+    private void runBatch(int from, int to, ExecutorService executor, boolean positions) {
+        int count = to - from;
+        int chunks = Math.min(maxChunks, count / MIN_CONSTRAINTS_PER_CHUNK);
+        if (executor == null || executor.isShutdown() || chunks < 2) {
+            solveRange(from, to, positions);
+            return;
+        }
+        int chunkSize = (count + chunks - 1) / chunks;
+        int submitted = 0;
+        for (int start = from; start < to; start += chunkSize) {
+            final int s = start;
+            final int e = Math.min(start + chunkSize, to);
+            futures[submitted++] = executor.submit(() -> solveRange(s, e, positions));
+        }
+        for (int i = 0; i < submitted; i++) {
+            try {
+                futures[i].get();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+            futures[i] = null;
+        }
+    }
+
+    private void solveRange(int from, int to, boolean positions) {
+        for (int i = from; i < to; i++) {
+            int c = order[i];
+            if (positions) {
+                correctPosition(c);
+            } else {
+                solveVelocity(c);
+            }
+        }
+    }
+
+    private void solveVelocity(int c) {
+        int a = bodyA[c];
+        int b = bodyB[c];
+        float nx = normalX[c];
+        float ny = normalY[c];
+        float vn = relativeNormalVelocity(a, b, nx, ny);
+        float lambda = (bias[c] - vn) * effectiveMass[c];
+        float previous = accumulated[c];
+        float total = Math.max(previous + lambda, 0f);
+        lambda = total - previous;
+        accumulated[c] = total;
+        if (a != STATIC) {
+            velX[a] -= nx * lambda * invMass[a];
+            velY[a] -= ny * lambda * invMass[a];
+        }
+        if (b != STATIC) {
+            velX[b] += nx * lambda * invMass[b];
+            velY[b] += ny * lambda * invMass[b];
+        }
+    }
+
+    private void correctPosition(int c) {
+        float push = Math.max(depth[c] - penetrationSlop, 0f) * correctionFactor * effectiveMass[c];
+        if (push == 0f) return;
+        int a = bodyA[c];
+        int b = bodyB[c];
+        if (a != STATIC) {
+            correctionX[a] -= normalX[c] * push * invMass[a];
+            correctionY[a] -= normalY[c] * push * invMass[a];
+        }
+        if (b != STATIC) {
+            correctionX[b] += normalX[c] * push * invMass[b];
+            correctionY[b] += normalY[c] * push * invMass[b];
+        }
+    }
+
+    private float relativeNormalVelocity(int a, int b, float nx, float ny) {
+        float rvx = (b == STATIC ? 0f : velX[b]) - (a == STATIC ? 0f : velX[a]);
+        float rvy = (b == STATIC ? 0f : velY[b]) - (a == STATIC ? 0f : velY[a]);
+        return rvx * nx + rvy * ny;
+    }
+
+    private void clearBodies() {
+        Arrays.fill(bodyPhysics, 0, bodyCount, null);
+        Arrays.fill(bodyTransform, 0, bodyCount, null);
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = Math.max(1, iterations);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Impact speed below which restitution is ignored, so resting contacts do not jitter.
+     */
+    public void setRestitutionThreshold(float speed) {
+        this.restitutionThreshold = Math.max(0f, speed);
+    }
+
+    /**
+     * Penetration left uncorrected, and the fraction of the rest removed per tick.
+     */
+    public void setPositionCorrection(float slop, float factor) {
+        this.penetrationSlop = Math.max(0f, slop);
+        this.correctionFactor = Math.max(0f, Math.min(1f, factor));
+    }
+
+    /**
+     * Constraints solved in the last call.
+     */
+    public int getConstraintCount() {
+        return constraintCount;
+    }
+
+    /**
+     * Colors (parallel batches) used in the last call, not counting the sequential overflow batch.
+     */
+    public int getColorCount() {
+        return colorCount;
+    }
+
+    private void growBodies(int capacity) {
+        bodyPhysics = Arrays.copyOf(bodyPhysics, capacity);
+        bodyTransform = Arrays.copyOf(bodyTransform, capacity);
+        invMass = Arrays.copyOf(invMass, capacity);
+        restitution = Arrays.copyOf(restitution, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        correctionX = Arrays.copyOf(correctionX, capacity);
+        correctionY = Arrays.copyOf(correctionY, capacity);
+        colorMask = Arrays.copyOf(colorMask, capacity);
+    }
+
+    private void growConstraints(int capacity) {
+        bodyA = Arrays.copyOf(bodyA, capacity);
+        bodyB = Arrays.copyOf(bodyB, capacity);
+        normalX = Arrays.copyOf(normalX, capacity);
+        normalY = Arrays.copyOf(normalY, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        effectiveMass = Arrays.copyOf(effectiveMass, capacity);
+        bias = Arrays.copyOf(bias, capacity);
+        accumulated = Arrays.copyOf(accumulated, capacity);
+        color = Arrays.copyOf(color, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
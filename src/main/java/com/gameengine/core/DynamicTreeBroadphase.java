@@ -0,0 +1,442 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Dynamic bounding volume tree broadphase. Leaves store a fat box (the tight box grown by a margin),
+ * so a proxy that stays inside its fat box moves without touching the tree. Internal nodes are kept
+ * balanced with AVL-style rotations. Works well when object sizes vary a lot.
+ */
+public class DynamicTreeBroadphase implements Broadphase {
+    private static final int NULL = -1;
+
+    private final float margin;
+
+    // Node storage; free nodes are chained through parent
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private int[] parent = new int[64];
+    private int[] child1 = new int[64];
+    private int[] child2 = new int[64];
+    private int[] height = new int[64];
+    private int[] userIds = new int[64];
+    // Tight boxes of leaves, used to filter fat-box candidates
+    private float[] tightMinX = new float[64];
+    private float[] tightMinY = new float[64];
+    private float[] tightMaxX = new float[64];
+    private float[] tightMaxY = new float[64];
+
+    private int root = NULL;
+    private int freeList = NULL;
+    private int nodeCount;
+    private int nodeCapacityUsed;
+    private int proxyCount;
+    private int[] stack = new int[64];
+    private PairFilter filter;
+
+    public DynamicTreeBroadphase() {
+        this(4f);
+    }
+
+    /**
+     * @param margin how far each fat box extends beyond the tight box on every side
+     */
+    public DynamicTreeBroadphase(float margin) {
+        this.margin = Math.max(0, margin);
+    }
+
+    @Override
+    public int createProxy(float left, float top, float right, float bottom, int userId) {
+        int leaf = allocateNode();
+        setTight(leaf, left, top, right, bottom);
+        setFat(leaf, left, top, right, bottom);
+        userIds[leaf] = userId;
+        height[leaf] = 0;
+        insertLeaf(leaf);
+        proxyCount++;
+        return leaf;
+    }
+
+    @Override
+    public void moveProxy(int proxyId, float left, float top, float right, float bottom) {
+        setTight(proxyId, left, top, right, bottom);
+        if (minX[proxyId] <= left && minY[proxyId] <= top && maxX[proxyId] >= right && maxY[proxyId] >= bottom) {
+            return;
+        }
+        removeLeaf(proxyId);
+        setFat(proxyId, left, top, right, bottom);
+        insertLeaf(proxyId);
+    }
+
+    @Override
+    public void destroyProxy(int proxyId) {
+        removeLeaf(proxyId);
+        freeNode(proxyId);
+        proxyCount--;
+    }
+
+    @Override
+    public void computePairs(PairBuffer pairs) {
+        pairs.clear();
+        if (root == NULL) return;
+        for (int leaf = 0; leaf < nodeCapacityUsed; leaf++) {
+            if (height[leaf] != 0) continue;
+            float left = tightMinX[leaf];
+            float top = tightMinY[leaf];
+            float right = tightMaxX[leaf];
+            float bottom = tightMaxY[leaf];
+            int sp = 0;
+            stack[sp++] = root;
+            while (sp > 0) {
+                int node = stack[--sp];
+                if (!(left < maxX[node] && right > minX[node] && top < maxY[node] && bottom > minY[node])) continue;
+                if (height[node] == 0) {
+                    // Each pair is seen from both leaves; keep it once
+                    if (node > leaf && left < tightMaxX[node] && right > tightMinX[node]
+                        && top < tightMaxY[node] && bottom > tightMinY[node]
+                        && (filter == null || filter.shouldCollide(userIds[leaf], userIds[node]))) {
+                        pairs.add(userIds[leaf], userIds[node]);
+                    }
+                } else {
+                    sp = push(sp, child1[node]);
+                    sp = push(sp, child2[node]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int queryAabb(float left, float top, float right, float bottom, int[] out) {
+        if (root == NULL || out.length == 0) return 0;
+        int count = 0;
+        int sp = 0;
+        stack[sp++] = root;
+        while (sp > 0) {
+            int node = stack[--sp];
+            if (!(left < maxX[node] && right > minX[node] && top < maxY[node] && bottom > minY[node])) continue;
+            if (height[node] == 0) {
+                if (left < tightMaxX[node] && right > tightMinX[node] && top < tightMaxY[node] && bottom > tightMinY[node]) {
+                    out[count++] = userIds[node];
+                    if (count == out.length) return count;
+                }
+            } else {
+                sp = push(sp, child1[node]);
+                sp = push(sp, child2[node]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes user ids of proxies whose tight box is crossed by the segment (x0, y0)-(x1, y1).
+     * Results are in traversal order, not sorted by distance.
+     *
+     * @return number of ids written (at most {@code out.length})
+     */
+    @Override
+    public int raycast(float x0, float y0, float x1, float y1, int[] out) {
+        if (root == NULL || out.length == 0) return 0;
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int count = 0;
+        int sp = 0;
+        stack[sp++] = root;
+        while (sp > 0) {
+            int node = stack[--sp];
+            if (height[node] == 0) {
+                if (segmentHitsBox(x0, y0, dx, dy, tightMinX[node], tightMinY[node], tightMaxX[node], tightMaxY[node])) {
+                    out[count++] = userIds[node];
+                    if (count == out.length) return count;
+                }
+            } else if (segmentHitsBox(x0, y0, dx, dy, minX[node], minY[node], maxX[node], maxY[node])) {
+                sp = push(sp, child1[node]);
+                sp = push(sp, child2[node]);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void setPairFilter(PairFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    /**
+     * Height of the tree, 0 for a single leaf and -1 when empty.
+     */
+    public int getHeight() {
+        return root == NULL ? -1 : height[root];
+    }
+
+    @Override
+    public void clear() {
+        root = NULL;
+        freeList = NULL;
+        nodeCount = 0;
+        nodeCapacityUsed = 0;
+        proxyCount = 0;
+    }
+
+    static boolean segmentHitsBox(float x0, float y0, float dx, float dy,
+                                  float left, float top, float right, float bottom) {
+        float tMin = 0f;
+        float tMax = 1f;
+        if (Math.abs(dx) < 1e-9f) {
+            if (x0 < left || x0 > right) return false;
+        } else {
+            float inv = 1f / dx;
+            float t1 = (left - x0) * inv;
+            float t2 = (right - x0) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax) return false;
+        }
+        if (Math.abs(dy) < 1e-9f) {
+            return y0 >= top && y0 <= bottom;
+        }
+        float inv = 1f / dy;
+        float t1 = (top - y0) * inv;
+        float t2 = (bottom - y0) * inv;
+        tMin = Math.max(tMin, Math.min(t1, t2));
+        tMax = Math.min(tMax, Math.max(t1, t2));
+        return tMin <= tMax;
+    }
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[root] = NULL;
+            return;
+        }
+
+        // Descend towards the sibling that minimizes the added perimeter
+        float left = minX[leaf];
+        float top = minY[leaf];
+        float right = maxX[leaf];
+        float bottom = maxY[leaf];
+        int index = root;
+        while (height[index] != 0) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+            float area = perimeter(minX[index], minY[index], maxX[index], maxY[index]);
+            float combinedArea = perimeter(Math.min(minX[index], left), Math.min(minY[index], top),
+                Math.max(maxX[index], right), Math.max(maxY[index], bottom));
+            float cost = 2f * combinedArea;
+            float inheritanceCost = 2f * (combinedArea - area);
+            float cost1 = descendCost(c1, left, top, right, bottom) + inheritanceCost;
+            float cost2 = descendCost(c2, left, top, right, bottom) + inheritanceCost;
+            if (cost < cost1 && cost < cost2) break;
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        userIds[newParent] = -1;
+        combine(newParent, leaf, sibling);
+        height[newParent] = height[sibling] + 1;
+
+        if (oldParent != NULL) {
+            if (child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        refitFrom(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+        if (grandParent != NULL) {
+            if (child1[grandParent] == p) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(p);
+            refitFrom(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(p);
+        }
+    }
+
+    private void refitFrom(int index) {
+        while (index != NULL) {
+            index = balance(index);
+            int c1 = child1[index];
+            int c2 = child2[index];
+            height[index] = 1 + Math.max(height[c1], height[c2]);
+            combine(index, c1, c2);
+            index = parent[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if node A is imbalanced. Returns the new subtree root.
+     */
+    private int balance(int iA) {
+        if (height[iA] < 2) return iA;
+
+        int iB = child1[iA];
+        int iC = child2[iA];
+        int diff = height[iC] - height[iB];
+
+        if (diff > 1) {
+            return rotate(iA, iC, iB, true);
+        }
+        if (diff < -1) {
+            return rotate(iA, iB, iC, false);
+        }
+        return iA;
+    }
+
+    /**
+     * Promotes {@code up} (a child of A) above A. {@code other} is A's remaining child;
+     * {@code upIsSecond} tells which slot of A held {@code up}.
+     */
+    private int rotate(int iA, int up, int other, boolean upIsSecond) {
+        int iF = child1[up];
+        int iG = child2[up];
+
+        child1[up] = iA;
+        parent[up] = parent[iA];
+        parent[iA] = up;
+
+        int upParent = parent[up];
+        if (upParent != NULL) {
+            if (child1[upParent] == iA) {
+                child1[upParent] = up;
+            } else {
+                child2[upParent] = up;
+            }
+        } else {
+            root = up;
+        }
+
+        int keep = height[iF] > height[iG] ? iF : iG;
+        int give = keep == iF ? iG : iF;
+        child2[up] = keep;
+        if (upIsSecond) {
+            child2[iA] = give;
+        } else {
+            child1[iA] = give;
+        }
+        parent[give] = iA;
+        combine(iA, other, give);
+        combine(up, iA, keep);
+        height[iA] = 1 + Math.max(height[other], height[give]);
+        height[up] = 1 + Math.max(height[iA], height[keep]);
+        return up;
+    }
+
+    private float descendCost(int child, float left, float top, float right, float bottom) {
+        float combined = perimeter(Math.min(minX[child], left), Math.min(minY[child], top),
+            Math.max(maxX[child], right), Math.max(maxY[child], bottom));
+        if (height[child] == 0) {
+            return combined;
+        }
+        return combined - perimeter(minX[child], minY[child], maxX[child], maxY[child]);
+    }
+
+    private static float perimeter(float left, float top, float right, float bottom) {
+        return 2f * ((right - left) + (bottom - top));
+    }
+
+    private void combine(int target, int a, int b) {
+        minX[target] = Math.min(minX[a], minX[b]);
+        minY[target] = Math.min(minY[a], minY[b]);
+        maxX[target] = Math.max(maxX[a], maxX[b]);
+        maxY[target] = Math.max(maxY[a], maxY[b]);
+    }
+
+    private void setTight(int node, float left, float top, float right, float bottom) {
+        tightMinX[node] = left;
+        tightMinY[node] = top;
+        tightMaxX[node] = right;
+        tightMaxY[node] = bottom;
+    }
+
+    private void setFat(int node, float left, float top, float right, float bottom) {
+        minX[node] = left - margin;
+        minY[node] = top - margin;
+        maxX[node] = right + margin;
+        maxY[node] = bottom + margin;
+    }
+
+    private int push(int sp, int node) {
+        if (sp == stack.length) {
+            stack = Arrays.copyOf(stack, sp * 2);
+        }
+        stack[sp] = node;
+        return sp + 1;
+    }
+
+    private int allocateNode() {
+        int node;
+        if (freeList != NULL) {
+            node = freeList;
+            freeList = parent[node];
+        } else {
+            if (nodeCapacityUsed == parent.length) {
+                growNodes(parent.length * 2);
+            }
+            node = nodeCapacityUsed++;
+        }
+        parent[node] = NULL;
+        child1[node] = NULL;
+        child2[node] = NULL;
+        height[node] = 0;
+        nodeCount++;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        // Mark as free so pair generation skips it
+        height[node] = -1;
+        freeList = node;
+        nodeCount--;
+    }
+
+    private void growNodes(int capacity) {
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        child1 = Arrays.copyOf(child1, capacity);
+        child2 = Arrays.copyOf(child2, capacity);
+        height = Arrays.copyOf(height, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        tightMinX = Arrays.copyOf(tightMinX, capacity);
+        tightMinY = Arrays.copyOf(tightMinY, capacity);
+        tightMaxX = Arrays.copyOf(tightMaxX, capacity);
+        tightMaxY = Arrays.copyOf(tightMaxY, capacity);
+    }
+}
@@ -0,0 +1,167 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Shortest-path directions towards one target over an {@link ObstacleGrid}, shared by every agent
+ * chasing that target. A breadth-first pass from the target cell assigns each free cell its step
+ * distance, then each cell points at its closest neighbor (diagonals only where neither adjacent
+ * side is solid, so agents do not cut wall corners). Agents sample their cell in constant time,
+ * so the pathfinding cost is one grid pass however many of them there are, and the pass only
+ * reruns when the target moves to another cell or the grid changes.
+ */
+public class FlowField {
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final float DIAGONAL = (float) (1.0 / Math.sqrt(2.0));
+
+    private final ObstacleGrid grid;
+    private final int columns;
+    private final int rows;
+    private final int[] distance;
+    private final float[] directionX;
+    private final float[] directionY;
+    private final int[] queue;
+    private int targetColumn = Integer.MIN_VALUE;
+    private int targetRow = Integer.MIN_VALUE;
+    private int gridVersion;
+    private int computeCount;
+
+    public FlowField(ObstacleGrid grid) {
+        this.grid = grid;
+        this.columns = grid.getColumns();
+        this.rows = grid.getRows();
+        int cells = columns * rows;
+        this.distance = new int[cells];
+        this.directionX = new float[cells];
+        this.directionY = new float[cells];
+        this.queue = new int[cells];
+        Arrays.fill(distance, UNREACHABLE);
+    }
+
+    /**
+     * Points the field at the target, recomputing it if the target changed cell or the grid changed.
+     * A target outside the grid is clamped to the nearest edge cell.
+     *
+     * @return true if the field was recomputed
+     */
+    public boolean update(float targetX, float targetY) {
+        int column = Math.max(0, Math.min(columns - 1, grid.columnAt(targetX)));
+        int row = Math.max(0, Math.min(rows - 1, grid.rowAt(targetY)));
+        if (column == targetColumn && row == targetRow && grid.getVersion() == gridVersion) {
+            return false;
+        }
+        targetColumn = column;
+        targetRow = row;
+        gridVersion = grid.getVersion();
+        computeDistances();
+        computeDirections();
+        computeCount++;
+        return true;
+    }
+
+    private void computeDistances() {
+        Arrays.fill(distance, UNREACHABLE);
+        int target = targetRow * columns + targetColumn;
+        distance[target] = 0;
+        queue[0] = target;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cell = queue[head++];
+            int column = cell % columns;
+            int row = cell / columns;
+            int next = distance[cell] + 1;
+            if (column > 0) tail = visit(cell - 1, column - 1, row, next, tail);
+            if (column < columns - 1) tail = visit(cell + 1, column + 1, row, next, tail);
+            if (row > 0) tail = visit(cell - columns, column, row - 1, next, tail);
+            if (row < rows - 1) tail = visit(cell + columns, column, row + 1, next, tail);
+        }
+    }
+
+    private int visit(int cell, int column, int row, int cellDistance, int tail) {
+        if (distance[cell] != UNREACHABLE || grid.isSolid(column, row)) return tail;
+        distance[cell] = cellDistance;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    private void computeDirections() {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cell = row * columns + column;
+                directionX[cell] = 0f;
+                directionY[cell] = 0f;
+                int best = distance[cell];
+                if (best == UNREACHABLE || best == 0) continue;
+                int bestDx = 0;
+                int bestDy = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (dx == 0 && dy == 0) continue;
+                        int d = distanceAt(column + dx, row + dy);
+                        if (d >= best) continue;
+                        if (dx != 0 && dy != 0
+                            && (grid.isSolid(column + dx, row) || grid.isSolid(column, row + dy))) {
+                            continue;
+                        }
+                        best = d;
+                        bestDx = dx;
+                        bestDy = dy;
+                    }
+                }
+                float scale = (bestDx != 0 && bestDy != 0) ? DIAGONAL : 1f;
+                directionX[cell] = bestDx * scale;
+                directionY[cell] = bestDy * scale;
+            }
+        }
+    }
+
+    private int distanceAt(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return UNREACHABLE;
+        return distance[row * columns + column];
+    }
+
+    private int cellAt(float x, float y) {
+        int column = grid.columnAt(x);
+        int row = grid.rowAt(y);
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return -1;
+        return row * columns + column;
+    }
+
+    /**
+     * X component of the unit direction to follow from the point, or 0 in the target cell, outside
+     * the grid and where the target cannot be reached.
+     */
+    public float sampleX(float x, float y) {
+        int cell = cellAt(x, y);
+        return cell < 0 ? 0f : directionX[cell];
+    }
+
+    /**
+     * Y component of the direction, see {@link #sampleX}.
+     */
+    public float sampleY(float x, float y) {
+        int cell = cellAt(x, y);
+        return cell < 0 ? 0f : directionY[cell];
+    }
+
+    /**
+     * Path length from the point to the target in cell steps, or -1 if it is unreachable or outside the grid.
+     */
+    public int getDistance(float x, float y) {
+        int cell = cellAt(x, y);
+        if (cell < 0 || distance[cell] == UNREACHABLE) return -1;
+        return distance[cell];
+    }
+
+    /**
+     * Number of times the field has been recomputed.
+     */
+    public int getComputeCount() {
+        return computeCount;
+    }
+
+    public ObstacleGrid getGrid() {
+        return grid;
+    }
+}
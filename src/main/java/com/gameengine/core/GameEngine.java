@@ -6,12 +6,15 @@ import com.gameengine.graphics.RendererFactory;
 import com.gameengine.input.InputManager;
 import com.gameengine.scene.Scene;
 
+import java.util.concurrent.ForkJoinPool;
 
 public class GameEngine {
     private IRenderer renderer;
     private InputManager inputManager;
     private Scene currentScene;
     private PhysicsSystem physicsSystem;
+    private int physicsThreadHz;
+    private boolean parallelPhysics = true;
     private boolean running;
     private float targetFPS;
     private float deltaTime;
@@ -26,9 +29,17 @@ public class GameEngine {
     }
     
     public GameEngine(int width, int height, String title, RenderBackend backend) {
+        this(width, height, title, backend, InputManager.getInstance());
+    }
+    
+    /**
+     * Engine reading its input from the given manager instead of the window's, e.g. a bot-driven
+     * one for a {@link RenderBackend#HEADLESS} simulation.
+     */
+    public GameEngine(int width, int height, String title, RenderBackend backend, InputManager inputManager) {
         this.title = title;
         this.renderer = RendererFactory.createRenderer(backend, width, height, title);
-        this.inputManager = InputManager.getInstance();
+        this.inputManager = inputManager;
         this.running = false;
         this.targetFPS = 60.0f;
         this.deltaTime = 0.0f;
@@ -41,23 +52,10 @@ public class GameEngine {
     }
     
     public void run() {
-        if (!initialize()) {
-            System.err.println("游戏引擎初始化失败");
+        if (!begin()) {
             return;
         }
         
-        running = true;
-        
-        if (currentScene != null) {
-            currentScene.initialize();
-            if (currentScene.getName().equals("MainMenu")) {
-                physicsSystem = null;
-            } else {
-                physicsSystem = new PhysicsSystem(currentScene, renderer.getWidth(), renderer.getHeight());
-            }
-            
-        }
-        
         long lastFrameTime = System.nanoTime();
         long frameTimeNanos = (long)(1_000_000_000.0 / targetFPS);
         
@@ -93,12 +91,51 @@ public class GameEngine {
         cleanup();
     }
     
+    /**
+     * Initializes the current scene and its physics and marks the engine running, without entering
+     * the real-time loop. {@link #run()} starts with this; headless drivers call it once and then
+     * advance time with {@link #step(float)}.
+     *
+     * @return false if the engine failed to initialize
+     */
+    public boolean begin() {
+        if (!initialize()) {
+            System.err.println("游戏引擎初始化失败");
+            return false;
+        }
+        
+        running = true;
+        
+        if (currentScene != null) {
+            currentScene.initialize();
+            if (currentScene.getName().equals("MainMenu")) {
+                physicsSystem = null;
+            } else {
+                physicsSystem = createPhysicsSystem(currentScene);
+            }
+            
+        }
+        return true;
+    }
+    
+    /**
+     * Advances the game by exactly {@code deltaTime} seconds, independent of wall-clock time.
+     */
+    public void step(float deltaTime) {
+        update(deltaTime);
+    }
+    
     private void update() {
         long currentTime = System.nanoTime();
-        deltaTime = (currentTime - lastTime) / 1_000_000_000.0f;
+        float frameTime = (currentTime - lastTime) / 1_000_000_000.0f;
         lastTime = currentTime;
         
         // renderer.pollEvents() moved to main loop
+        update(frameTime);
+    }
+    
+    private void update(float deltaTime) {
+        this.deltaTime = deltaTime;
         
         if (currentScene != null) {
             currentScene.update(deltaTime);
@@ -139,6 +176,52 @@ public class GameEngine {
         renderer.endFrame();
     }
     
+    private PhysicsSystem createPhysicsSystem(Scene scene) {
+        PhysicsSystem system = new PhysicsSystem(scene, renderer.getWidth(), renderer.getHeight(), parallelPhysics);
+        if (physicsThreadHz > 0) {
+            system.startPhysicsThread(physicsThreadHz);
+        }
+        return system;
+    }
+    
+    /**
+     * Runs physics integration on its own thread at the given rate; 0 keeps it on the game loop.
+     * Applies to the current scene's physics right away.
+     */
+    public void setPhysicsThreadHz(int hz) {
+        this.physicsThreadHz = Math.max(0, hz);
+        if (physicsSystem != null) {
+            physicsSystem.stopPhysicsThread();
+            if (physicsThreadHz > 0) {
+                physicsSystem.startPhysicsThread(physicsThreadHz);
+            }
+        }
+    }
+    
+    public int getPhysicsThreadHz() {
+        return physicsThreadHz;
+    }
+    
+    /**
+     * Whether physics systems created from now on get their own worker pool. Turn it off when many
+     * engines already run side by side on a shared pool and extra workers would only compete.
+     */
+    public void setParallelPhysics(boolean parallelPhysics) {
+        this.parallelPhysics = parallelPhysics;
+    }
+    
+    public boolean isParallelPhysics() {
+        return parallelPhysics;
+    }
+    
+    /**
+     * Shared pool for scene work that splits across cores (steering, particles), or null while
+     * parallel physics is off so that work stays on the calling thread too.
+     */
+    public ForkJoinPool getWorkerPool() {
+        return parallelPhysics ? ForkJoinPool.commonPool() : null;
+    }
+    
     public void setScene(Scene scene) {
         if (currentScene != null) {
             if (physicsSystem != null) {
@@ -152,12 +235,20 @@ public class GameEngine {
             if (running) {
                 scene.initialize();
                 if (!scene.getName().equals("MainMenu") && !scene.getName().equals("Replay")) {
-                    physicsSystem = new PhysicsSystem(scene, renderer.getWidth(), renderer.getHeight());
+                    physicsSystem = createPhysicsSystem(scene);
                 }
             }
         }
     }
     
+    /**
+     * Physics of the current scene, or null while a scene without physics (menu, replay) is active
+     * or before the engine runs.
+     */
+    public PhysicsSystem getPhysicsSystem() {
+        return physicsSystem;
+    }
+    
     public Scene getCurrentScene() {
         return currentScene;
     }
@@ -3,11 +3,9 @@ package com.gameengine.core;
 import com.gameengine.components.PhysicsComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.input.InputManager;
-import com.gameengine.math.CollisionUtils;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
-import java.util.List;
 import java.util.function.Consumer;
 
 public class GameLogic {
@@ -22,8 +20,14 @@ public class GameLogic {
         this.inputManager = InputManager.getInstance();
     }
 
+    /**
+     * Also switches input to the engine's, which may be a bot-driven one rather than the window's.
+     */
     public void setGameEngine(GameEngine engine) {
         this.gameEngine = engine;
+        if (engine != null && engine.getInputManager() != null) {
+            this.inputManager = engine.getInputManager();
+        }
     }
     
     public void setOnPlayerEnemyCollision(Consumer<GameObject> onPlayerEnemyCollision) {
@@ -105,28 +109,32 @@ public class GameLogic {
     // unless we want custom behavior not covered by PhysicsSystem.
     // But we do need to check collisions.
 
-    public void checkCollisions() {
-        if (gameOver) return;
+    /**
+     * Collision listener: reports each enemy once, on the tick it starts touching the player.
+     */
+    public void handleCollisionEvents(CollisionEvents events) {
+        if (gameOver || events.getEnterCount() == 0) return;
 
         GameObject player = getUserPlayer();
         if (player == null || !player.isActive()) return;
 
-        TransformComponent playerTransform = player.getComponent(TransformComponent.class);
-        if (playerTransform == null) return;
+        for (int i = 0; i < events.size(); i++) {
+            if (events.getType(i) != CollisionEvents.Type.ENTER) continue;
+            GameObject a = events.getColliderA(i).getOwner();
+            GameObject b = events.getColliderB(i).getOwner();
+            GameObject other;
+            if (a == player) {
+                other = b;
+            } else if (b == player) {
+                other = a;
+            } else {
+                continue;
+            }
 
-        CollisionUtils.Rect playerRect = CollisionUtils.playerBounds(playerTransform.getPosition());
-        if (playerRect == null) return;
+            if (other == null || !other.isActive() || !"Enemy".equals(other.getName())) continue;
 
-        for (GameObject obj : scene.getGameObjects()) {
-            if ("Enemy".equals(obj.getName()) && obj.isActive()) {
-                TransformComponent enemyTransform = obj.getComponent(TransformComponent.class);
-                CollisionUtils.Rect enemyRect = CollisionUtils.enemyBounds(obj, enemyTransform);
-                
-                if (enemyRect != null && playerRect.intersects(enemyRect)) {
-                    if (onPlayerEnemyCollision != null) {
-                        onPlayerEnemyCollision.accept(obj);
-                    }
-                }
+            if (onPlayerEnemyCollision != null) {
+                onPlayerEnemyCollision.accept(other);
             }
         }
     }
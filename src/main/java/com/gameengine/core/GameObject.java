@@ -1,16 +1,18 @@
 package com.gameengine.core;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GameObject {
-    private static long nextId = 0;
+    // Shared by every scene, including scenes simulated concurrently on other threads
+    private static final AtomicLong nextId = new AtomicLong();
     protected final long id;
     protected boolean active;
     protected String name;
     protected final List<Component<?>> components;
     
     public GameObject() {
-        this.id = nextId++;
+        this.id = nextId.getAndIncrement();
         this.active = true;
         this.name = "GameObject";
         this.components = new ArrayList<>();
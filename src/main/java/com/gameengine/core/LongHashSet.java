@@ -0,0 +1,110 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-zero longs (linear probing, backward-shift deletion).
+ * Used for pair keys from {@link PairBuffer#key}, which are never zero.
+ */
+final class LongHashSet {
+    private long[] table;
+    private int size;
+    private int mask;
+
+    LongHashSet() {
+        this(64);
+    }
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+        table = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    boolean contains(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = table[i];
+            if (k == 0) return false;
+            if (k == key) return true;
+        }
+    }
+
+    /**
+     * @return true if the key was not present
+     */
+    boolean add(long key) {
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = table[i];
+            if (k == key) return false;
+            if (k == 0) {
+                table[i] = key;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    boolean remove(long key) {
+        int i = slot(key);
+        while (true) {
+            long k = table[i];
+            if (k == 0) return false;
+            if (k == key) break;
+            i = (i + 1) & mask;
+        }
+        // Shift following entries of the probe chain back into the hole
+        int hole = i;
+        for (int j = (hole + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = slot(table[j]);
+            boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                table[hole] = table[j];
+                hole = j;
+            }
+        }
+        table[hole] = 0;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    /**
+     * Raw slot access for allocation-free iteration: valid keys are the non-zero entries.
+     */
+    int capacity() {
+        return table.length;
+    }
+
+    long keyAt(int slot) {
+        return table[slot];
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+        for (long k : old) {
+            if (k != 0) add(k);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Exact shape tests and contact generation for the broadphase's candidate pairs.
+ * <p>
+ * The (sorted) pair list is split into contiguous chunks, one per worker. Each chunk writes into its
+ * own preallocated {@link ContactBuffer}, and the chunk buffers are appended in chunk order, so the
+ * merged contacts come out in pair order no matter how the workers were scheduled. Small pair lists,
+ * or a missing executor, run on the calling thread.
+ */
+public class Narrowphase {
+    private static final int MIN_PAIRS_PER_CHUNK = 128;
+
+    private final ContactBuffer[] chunkBuffers;
+    private final Future<?>[] futures;
+
+    public Narrowphase() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public Narrowphase(int maxChunks) {
+        int chunks = Math.max(1, maxChunks);
+        chunkBuffers = new ContactBuffer[chunks];
+        for (int i = 0; i < chunks; i++) {
+            chunkBuffers[i] = new ContactBuffer(256);
+        }
+        futures = new Future<?>[chunks];
+    }
+
+    /**
+     * Tests every pair and writes the touching ones to {@code out} (cleared first).
+     *
+     * @param executor workers to spread the pairs over, or null to run sequentially
+     */
+    public void run(CollisionWorld world, PairBuffer pairs, ContactBuffer out, ExecutorService executor) {
+        out.clear();
+        int count = pairs.size();
+        int chunks = Math.min(chunkBuffers.length, count / MIN_PAIRS_PER_CHUNK);
+        if (executor == null || executor.isShutdown() || chunks < 2) {
+            collideRange(world, pairs, 0, count, out);
+            return;
+        }
+
+        int chunkSize = (count + chunks - 1) / chunks;
+        int submitted = 0;
+        for (int c = 0; c < chunks; c++) {
+            final int start = c * chunkSize;
+            final int end = Math.min(start + chunkSize, count);
+            if (start >= end) break;
+            final ContactBuffer buffer = chunkBuffers[c];
+            futures[c] = executor.submit(() -> {
+                buffer.clear();
+                collideRange(world, pairs, start, end, buffer);
+            });
+            submitted++;
+        }
+
+        for (int c = 0; c < submitted; c++) {
+            try {
+                futures[c].get();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            futures[c] = null;
+            out.addAll(chunkBuffers[c]);
+        }
+    }
+
+    private static void collideRange(CollisionWorld world, PairBuffer pairs, int start, int end, ContactBuffer out) {
+        for (int i = start; i < end; i++) {
+            int a = pairs.getA(i);
+            int b = pairs.getB(i);
+            ColliderComponent colliderA = world.getCollider(a);
+            ColliderComponent colliderB = world.getCollider(b);
+            if (colliderA == null || colliderB == null) continue;
+            collide(colliderA, colliderB, a, b, out);
+        }
+    }
+
+    /**
+     * Adds a contact for the two colliders if they touch. Swept colliders are tested over the whole
+     * step; their contact carries the time of impact, and a zero depth if they no longer overlap.
+     *
+     * @return true if a contact was added
+     */
+    public static boolean collide(ColliderComponent a, ColliderComponent b, int slotA, int slotB, ContactBuffer out) {
+        if (a.isSwept() || b.isSwept()) {
+            float toi = a.timeOfImpact(b);
+            if (toi < 0f) return false;
+            if (!overlap(a, b, slotA, slotB, toi, out)) {
+                float dx = b.getCenterX() - a.getCenterX();
+                float dy = b.getCenterY() - a.getCenterY();
+                float length = (float) Math.sqrt(dx * dx + dy * dy);
+                if (length > 0f) {
+                    out.add(slotA, slotB, dx / length, dy / length, 0f, toi);
+                } else {
+                    out.add(slotA, slotB, 1f, 0f, 0f, toi);
+                }
+            }
+            return true;
+        }
+        return overlap(a, b, slotA, slotB, 0f, out);
+    }
+
+    private static boolean overlap(ColliderComponent a, ColliderComponent b, int slotA, int slotB,
+                                   float toi, ContactBuffer out) {
+        boolean circleA = a.getShape() == ColliderComponent.Shape.CIRCLE;
+        boolean circleB = b.getShape() == ColliderComponent.Shape.CIRCLE;
+        if (circleA && circleB) {
+            return circleCircle(a, b, slotA, slotB, toi, out);
+        }
+        if (circleA) {
+            return circleBox(a, b, slotA, slotB, 1f, toi, out);
+        }
+        if (circleB) {
+            return circleBox(b, a, slotA, slotB, -1f, toi, out);
+        }
+        return boxBox(a, b, slotA, slotB, toi, out);
+    }
+
+    private static boolean circleCircle(ColliderComponent a, ColliderComponent b, int slotA, int slotB,
+                                        float toi, ContactBuffer out) {
+        float dx = b.getCenterX() - a.getCenterX();
+        float dy = b.getCenterY() - a.getCenterY();
+        float radii = a.getRadius() + b.getRadius();
+        float distSq = dx * dx + dy * dy;
+        if (distSq >= radii * radii) return false;
+        float dist = (float) Math.sqrt(distSq);
+        if (dist > 0f) {
+            out.add(slotA, slotB, dx / dist, dy / dist, radii - dist, toi);
+        } else {
+            out.add(slotA, slotB, 1f, 0f, radii, toi);
+        }
+        return true;
+    }
+
+    /**
+     * Circle against box. The normal is computed from the circle towards the box and multiplied by
+     * {@code sign}, so callers can flip it when the box is collider A.
+     */
+    private static boolean circleBox(ColliderComponent circle, ColliderComponent box, int slotA, int slotB,
+                                     float sign, float toi, ContactBuffer out) {
+        float cx = circle.getCenterX();
+        float cy = circle.getCenterY();
+        float radius = circle.getRadius();
+        float closestX = Math.max(box.getMinX(), Math.min(cx, box.getMaxX()));
+        float closestY = Math.max(box.getMinY(), Math.min(cy, box.getMaxY()));
+        float dx = closestX - cx;
+        float dy = closestY - cy;
+        float distSq = dx * dx + dy * dy;
+        if (distSq > 0f) {
+            if (distSq >= radius * radius) return false;
+            float dist = (float) Math.sqrt(distSq);
+            out.add(slotA, slotB, sign * dx / dist, sign * dy / dist, radius - dist, toi);
+            return true;
+        }
+        // Center inside the box: push out through the nearest face
+        float left = cx - box.getMinX();
+        float right = box.getMaxX() - cx;
+        float top = cy - box.getMinY();
+        float bottom = box.getMaxY() - cy;
+        float minFace = Math.min(Math.min(left, right), Math.min(top, bottom));
+        float nx = 0f;
+        float ny = 0f;
+        if (minFace == left) {
+            nx = 1f;
+        } else if (minFace == right) {
+            nx = -1f;
+        } else if (minFace == top) {
+            ny = 1f;
+        } else {
+            ny = -1f;
+        }
+        out.add(slotA, slotB, sign * nx, sign * ny, minFace + radius, toi);
+        return true;
+    }
+
+    private static boolean boxBox(ColliderComponent a, ColliderComponent b, int slotA, int slotB,
+                                  float toi, ContactBuffer out) {
+        float overlapX = Math.min(a.getMaxX(), b.getMaxX()) - Math.max(a.getMinX(), b.getMinX());
+        float overlapY = Math.min(a.getMaxY(), b.getMaxY()) - Math.max(a.getMinY(), b.getMinY());
+        if (overlapX <= 0f || overlapY <= 0f) return false;
+        if (overlapX < overlapY) {
+            float nx = b.getCenterX() >= a.getCenterX() ? 1f : -1f;
+            out.add(slotA, slotB, nx, 0f, overlapX, toi);
+        } else {
+            float ny = b.getCenterY() >= a.getCenterY() ? 1f : -1f;
+            out.add(slotA, slotB, 0f, ny, overlapY, toi);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,392 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Static level geometry as a uniform grid of solid/free cells, one bit per cell, with the world
+ * origin at the grid's top-left corner. Occupancy is kept twice, row-major and column-major, so
+ * both a horizontal and a vertical run of cells is tested a 64-bit word at a time. Cells outside
+ * the grid are free.
+ * <p>
+ * Boxes are tested against the cells they cover; touching a cell edge does not count as covering
+ * it, with a small tolerance so a box resting exactly against a wall is not seen as inside it.
+ */
+public class ObstacleGrid {
+    private static final float EDGE_EPSILON = 1e-3f;
+    private static final int MAX_ESCAPE_STEPS = 8;
+
+    private final float cellSize;
+    private final float inverseCellSize;
+    private final float edgeTolerance;
+    private final int columns;
+    private final int rows;
+    private final int rowWords;
+    private final int columnWords;
+    private final long[] rowBits;
+    private final long[] columnBits;
+    private int solidCount;
+    private int version;
+
+    public ObstacleGrid(float cellSize, int columns, int rows) {
+        if (cellSize <= 0f) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        this.edgeTolerance = cellSize * EDGE_EPSILON;
+        this.columns = Math.max(1, columns);
+        this.rows = Math.max(1, rows);
+        this.rowWords = (this.columns + 63) >>> 6;
+        this.columnWords = (this.rows + 63) >>> 6;
+        this.rowBits = new long[rowWords * this.rows];
+        this.columnBits = new long[columnWords * this.columns];
+    }
+
+    /**
+     * Independent copy, e.g. to hand the current geometry to another thread.
+     */
+    public ObstacleGrid(ObstacleGrid source) {
+        this.cellSize = source.cellSize;
+        this.inverseCellSize = source.inverseCellSize;
+        this.edgeTolerance = source.edgeTolerance;
+        this.columns = source.columns;
+        this.rows = source.rows;
+        this.rowWords = source.rowWords;
+        this.columnWords = source.columnWords;
+        this.rowBits = source.rowBits.clone();
+        this.columnBits = source.columnBits.clone();
+        this.solidCount = source.solidCount;
+        this.version = source.version;
+    }
+
+    public boolean isSolid(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return false;
+        return (rowBits[row * rowWords + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    public void setSolid(int column, int row, boolean solid) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return;
+        if (isSolid(column, row) == solid) return;
+        rowBits[row * rowWords + (column >>> 6)] ^= 1L << column;
+        columnBits[column * columnWords + (row >>> 6)] ^= 1L << row;
+        solidCount += solid ? 1 : -1;
+        version++;
+    }
+
+    /**
+     * Marks every cell the box covers as solid, so the baked shape grows out to cell boundaries.
+     */
+    public void fillBox(float minX, float minY, float maxX, float maxY) {
+        int lastRow = lastCell(maxY);
+        int lastColumn = lastCell(maxX);
+        for (int row = firstCell(minY); row <= lastRow; row++) {
+            for (int column = firstCell(minX); column <= lastColumn; column++) {
+                setSolid(column, row, true);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(rowBits, 0L);
+        Arrays.fill(columnBits, 0L);
+        solidCount = 0;
+        version++;
+    }
+
+    public boolean isEmpty() {
+        return solidCount == 0;
+    }
+
+    public int getSolidCount() {
+        return solidCount;
+    }
+
+    /**
+     * True if the box covers any solid cell.
+     */
+    public boolean overlaps(float minX, float minY, float maxX, float maxY) {
+        int firstColumn = firstCell(minX);
+        int lastColumn = lastCell(maxX);
+        int lastRow = lastCell(maxY);
+        for (int row = firstCell(minY); row <= lastRow; row++) {
+            if (rowSpanSolid(row, firstColumn, lastColumn)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * How far the box can move by {@code dx} before running into a solid cell. Cells the box
+     * already covers are ignored, so a box that starts inside geometry is never stuck.
+     *
+     * @return the allowed displacement, equal to {@code dx} when nothing is in the way
+     */
+    public float sweepX(float minX, float minY, float maxX, float maxY, float dx) {
+        if (dx == 0f || solidCount == 0) return dx;
+        int firstRow = firstCell(minY);
+        int lastRow = lastCell(maxY);
+        if (dx > 0f) {
+            int to = lastCell(maxX + dx);
+            for (int column = lastCell(maxX) + 1; column <= to; column++) {
+                if (columnSpanSolid(column, firstRow, lastRow)) {
+                    return column * cellSize - maxX;
+                }
+            }
+        } else {
+            int to = firstCell(minX + dx);
+            for (int column = firstCell(minX) - 1; column >= to; column--) {
+                if (columnSpanSolid(column, firstRow, lastRow)) {
+                    return (column + 1) * cellSize - minX;
+                }
+            }
+        }
+        return dx;
+    }
+
+    /**
+     * Vertical counterpart of {@link #sweepX}.
+     */
+    public float sweepY(float minX, float minY, float maxX, float maxY, float dy) {
+        if (dy == 0f || solidCount == 0) return dy;
+        int firstColumn = firstCell(minX);
+        int lastColumn = lastCell(maxX);
+        if (dy > 0f) {
+            int to = lastCell(maxY + dy);
+            for (int row = lastCell(maxY) + 1; row <= to; row++) {
+                if (rowSpanSolid(row, firstColumn, lastColumn)) {
+                    return row * cellSize - maxY;
+                }
+            }
+        } else {
+            int to = firstCell(minY + dy);
+            for (int row = firstCell(minY) - 1; row >= to; row--) {
+                if (rowSpanSolid(row, firstColumn, lastColumn)) {
+                    return (row + 1) * cellSize - minY;
+                }
+            }
+        }
+        return dy;
+    }
+
+    /**
+     * Shortest horizontal shift that moves an overlapping box clear of solid cells, searching a
+     * few obstacles deep in each direction.
+     *
+     * @return the signed shift, 0 if the box is already clear, or NaN if no shift was found
+     */
+    public float escapeX(float minX, float minY, float maxX, float maxY) {
+        int firstRow = firstCell(minY);
+        int lastRow = lastCell(maxY);
+        float right = Float.NaN;
+        float shift = 0f;
+        for (int i = 0; i < MAX_ESCAPE_STEPS; i++) {
+            int column = lastSolidColumn(minX + shift, maxX + shift, firstRow, lastRow);
+            if (column < 0) {
+                right = shift;
+                break;
+            }
+            shift = (column + 1) * cellSize - minX;
+        }
+        if (right == 0f) return 0f;
+        float left = Float.NaN;
+        shift = 0f;
+        for (int i = 0; i < MAX_ESCAPE_STEPS; i++) {
+            int column = firstSolidColumn(minX + shift, maxX + shift, firstRow, lastRow);
+            if (column < 0) {
+                left = shift;
+                break;
+            }
+            shift = column * cellSize - maxX;
+        }
+        return closer(left, right);
+    }
+
+    /**
+     * Vertical counterpart of {@link #escapeX}.
+     */
+    public float escapeY(float minX, float minY, float maxX, float maxY) {
+        int firstColumn = firstCell(minX);
+        int lastColumn = lastCell(maxX);
+        float down = Float.NaN;
+        float shift = 0f;
+        for (int i = 0; i < MAX_ESCAPE_STEPS; i++) {
+            int row = lastSolidRow(minY + shift, maxY + shift, firstColumn, lastColumn);
+            if (row < 0) {
+                down = shift;
+                break;
+            }
+            shift = (row + 1) * cellSize - minY;
+        }
+        if (down == 0f) return 0f;
+        float up = Float.NaN;
+        shift = 0f;
+        for (int i = 0; i < MAX_ESCAPE_STEPS; i++) {
+            int row = firstSolidRow(minY + shift, maxY + shift, firstColumn, lastColumn);
+            if (row < 0) {
+                up = shift;
+                break;
+            }
+            shift = row * cellSize - maxY;
+        }
+        return closer(up, down);
+    }
+
+    /**
+     * Moves each body's box from its step start to its integrated position one axis at a time,
+     * stopping it at the first solid cell and zeroing velocity along that axis so it slides along
+     * walls. A box that starts inside geometry (spawned or baked over) is pushed out the shortest way.
+     * Boxes are given relative to the body position; a NaN width means the body has no box.
+     */
+    public void resolveMoves(float[] startX, float[] startY, float[] posX, float[] posY, float[] velX, float[] velY,
+                             float[] boxOffsetX, float[] boxOffsetY, float[] boxWidth, float[] boxHeight,
+                             int start, int end) {
+        for (int i = start; i < end; i++) {
+            float width = boxWidth[i];
+            if (Float.isNaN(width)) continue;
+            float height = boxHeight[i];
+            float minX = startX[i] + boxOffsetX[i];
+            float minY = startY[i] + boxOffsetY[i];
+
+            if (overlaps(minX, minY, minX + width, minY + height)) {
+                // Push the start out first, then sweep from there as usual
+                float shiftX = escapeX(minX, minY, minX + width, minY + height);
+                float shiftY = escapeY(minX, minY, minX + width, minY + height);
+                if (!Float.isNaN(shiftX) && (Float.isNaN(shiftY) || Math.abs(shiftX) <= Math.abs(shiftY))) {
+                    startX[i] += shiftX;
+                    minX += shiftX;
+                    velX[i] = 0f;
+                } else if (!Float.isNaN(shiftY)) {
+                    startY[i] += shiftY;
+                    minY += shiftY;
+                    velY[i] = 0f;
+                } else {
+                    continue;
+                }
+            }
+
+            float dx = posX[i] - startX[i];
+            float allowedX = sweepX(minX, minY, minX + width, minY + height, dx);
+            if (allowedX != dx) {
+                posX[i] = startX[i] + allowedX;
+                velX[i] = 0f;
+            }
+            minX += allowedX;
+            float dy = posY[i] - startY[i];
+            float allowedY = sweepY(minX, minY, minX + width, minY + height, dy);
+            if (allowedY != dy) {
+                posY[i] = startY[i] + allowedY;
+                velY[i] = 0f;
+            }
+        }
+    }
+
+    private static float closer(float a, float b) {
+        if (Float.isNaN(a)) return b;
+        if (Float.isNaN(b)) return a;
+        return Math.abs(a) <= Math.abs(b) ? a : b;
+    }
+
+    private int lastSolidColumn(float minX, float maxX, int firstRow, int lastRow) {
+        int first = firstCell(minX);
+        for (int column = lastCell(maxX); column >= first; column--) {
+            if (columnSpanSolid(column, firstRow, lastRow)) return column;
+        }
+        return -1;
+    }
+
+    private int firstSolidColumn(float minX, float maxX, int firstRow, int lastRow) {
+        int last = lastCell(maxX);
+        for (int column = firstCell(minX); column <= last; column++) {
+            if (columnSpanSolid(column, firstRow, lastRow)) return column;
+        }
+        return -1;
+    }
+
+    private int lastSolidRow(float minY, float maxY, int firstColumn, int lastColumn) {
+        int first = firstCell(minY);
+        for (int row = lastCell(maxY); row >= first; row--) {
+            if (rowSpanSolid(row, firstColumn, lastColumn)) return row;
+        }
+        return -1;
+    }
+
+    private int firstSolidRow(float minY, float maxY, int firstColumn, int lastColumn) {
+        int last = lastCell(maxY);
+        for (int row = firstCell(minY); row <= last; row++) {
+            if (rowSpanSolid(row, firstColumn, lastColumn)) return row;
+        }
+        return -1;
+    }
+
+    private int firstCell(float min) {
+        return (int) Math.floor((min + edgeTolerance) * inverseCellSize);
+    }
+
+    private int lastCell(float max) {
+        return (int) Math.ceil((max - edgeTolerance) * inverseCellSize) - 1;
+    }
+
+    /**
+     * Any solid cell among columns [from, to] of the row.
+     */
+    private boolean rowSpanSolid(int row, int from, int to) {
+        if (row < 0 || row >= rows) return false;
+        return spanSolid(rowBits, row * rowWords, Math.max(0, from), Math.min(columns - 1, to));
+    }
+
+    /**
+     * Any solid cell among rows [from, to] of the column.
+     */
+    private boolean columnSpanSolid(int column, int from, int to) {
+        if (column < 0 || column >= columns) return false;
+        return spanSolid(columnBits, column * columnWords, Math.max(0, from), Math.min(rows - 1, to));
+    }
+
+    private static boolean spanSolid(long[] bits, int base, int from, int to) {
+        if (from > to) return false;
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (firstWord == lastWord) {
+            return (bits[base + firstWord] & firstMask & lastMask) != 0;
+        }
+        if ((bits[base + firstWord] & firstMask) != 0) return true;
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            if (bits[base + word] != 0) return true;
+        }
+        return (bits[base + lastWord] & lastMask) != 0;
+    }
+
+    /**
+     * Column containing the world x coordinate; may lie outside the grid.
+     */
+    public int columnAt(float x) {
+        return (int) Math.floor(x * inverseCellSize);
+    }
+
+    /**
+     * Row containing the world y coordinate; may lie outside the grid.
+     */
+    public int rowAt(float y) {
+        return (int) Math.floor(y * inverseCellSize);
+    }
+
+    /**
+     * Changes on every occupancy change, so derived data such as a {@link FlowField} knows to rebuild.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
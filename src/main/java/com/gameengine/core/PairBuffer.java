@@ -0,0 +1,77 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of unordered id pairs stored as two int arrays. Pairs are normalized so that {@code a < b}.
+ */
+public class PairBuffer {
+    private int[] first;
+    private int[] second;
+    private int size;
+    private long[] sortKeys = new long[0];
+
+    public PairBuffer() {
+        this(256);
+    }
+
+    public PairBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        first = new int[capacity];
+        second = new int[capacity];
+    }
+
+    public void add(int a, int b) {
+        if (size == first.length) {
+            first = Arrays.copyOf(first, size * 2);
+            second = Arrays.copyOf(second, size * 2);
+        }
+        first[size] = Math.min(a, b);
+        second[size] = Math.max(a, b);
+        size++;
+    }
+
+    public int getA(int index) {
+        return first[index];
+    }
+
+    public int getB(int index) {
+        return second[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sorts pairs by (a, b) so iteration order does not depend on broadphase internals.
+     */
+    public void sort() {
+        if (size < 2) return;
+        if (sortKeys.length < size) {
+            sortKeys = new long[first.length];
+        }
+        long[] keys = sortKeys;
+        for (int i = 0; i < size; i++) {
+            keys[i] = key(first[i], second[i]);
+        }
+        Arrays.sort(keys, 0, size);
+        for (int i = 0; i < size; i++) {
+            first[i] = (int) (keys[i] >>> 32);
+            second[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Packs a normalized pair into one long, usable as a map key.
+     */
+    public static long key(int a, int b) {
+        int lo = Math.min(a, b);
+        int hi = Math.max(a, b);
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,9 @@
+package com.gameengine.core;
+
+/**
+ * Decides whether two broadphase proxies, identified by their user ids, may form a pair.
+ */
+@FunctionalInterface
+public interface PairFilter {
+    boolean shouldCollide(int userIdA, int userIdB);
+}
@@ -0,0 +1,104 @@
+package com.gameengine.core;
+
+/**
+ * Lightweight particle source owned by a {@link ParticleManager}. It only holds a config, a
+ * position and a spawn timer; its particles live in the manager's shared pool. Emitters are
+ * recycled once released, so a reference must not be used after {@link #release()}.
+ */
+public class ParticleEmitter {
+    private final ParticleManager manager;
+    private ParticleSystem.Config config;
+    private float x;
+    private float y;
+    private float spawnRate;
+    private float timeSinceLastSpawn;
+    private int priority;
+    private boolean active;
+    private boolean released;
+
+    ParticleEmitter(ParticleManager manager) {
+        this.manager = manager;
+    }
+
+    void reset(ParticleSystem.Config config, float x, float y) {
+        this.config = config;
+        this.x = x;
+        this.y = y;
+        this.spawnRate = config.spawnRate;
+        this.timeSinceLastSpawn = 0f;
+        this.priority = config.priority;
+        this.active = true;
+        this.released = false;
+    }
+
+    /**
+     * Continuous spawning, like {@link ParticleSystem#update}.
+     */
+    void update(float deltaTime) {
+        if (!active) return;
+        timeSinceLastSpawn += deltaTime;
+        if (timeSinceLastSpawn >= spawnRate) {
+            manager.spawnParticle(config, x, y, priority);
+            timeSinceLastSpawn = 0f;
+        }
+    }
+
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Pauses or resumes continuous spawning; particles already emitted live on either way.
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setSpawnRate(float rate) {
+        this.spawnRate = rate;
+    }
+
+    public void burst(int count) {
+        manager.burst(config, x, y, count, priority);
+    }
+
+    /**
+     * Importance under the manager's budget; starts at the config's priority.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Stops the emitter and hands it back to the manager for reuse; its particles fade out normally.
+     */
+    public void release() {
+        active = false;
+        released = true;
+    }
+
+    boolean isReleased() {
+        return released;
+    }
+
+    public ParticleSystem.Config getConfig() {
+        return config;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+}
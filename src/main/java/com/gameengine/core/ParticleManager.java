@@ -0,0 +1,195 @@
+package com.gameengine.core;
+
+import com.gameengine.graphics.IRenderer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scene-wide particle simulation: every emitter spawns into one shared {@link ParticlePool}, and
+ * all particles are updated in a single pass and drawn in a single loop. One-shot effects such as
+ * explosions call {@link #burst} directly without an emitter; continuous sources take a pooled
+ * {@link ParticleEmitter} that is recycled after {@link ParticleEmitter#release()}.
+ * <p>
+ * A global budget bounds the live particle count, and with it update and draw cost. Each spawn
+ * carries a priority ({@link ParticleSystem.Config#priority}, or the emitter's): priority 0 may
+ * only fill half the budget, priority 1 three quarters and priority 2 and above all of it, so
+ * low-priority effects are dropped first as the pool fills. Past half the budget, new particles
+ * also live shorter, down to a quarter of their lifetime when the budget is full. Particles that
+ * leave the screen or fade below the drawing threshold are culled instead of simulated.
+ */
+public class ParticleManager {
+    private final ParticlePool particles;
+    private final IRenderer renderer;
+    private final Random random;
+    private final List<ParticleEmitter> emitters;
+    private final ArrayDeque<ParticleEmitter> freeEmitters;
+    private int budget;
+    private long droppedCount;
+
+    public ParticleManager(IRenderer renderer, int capacity) {
+        this(renderer, capacity, new Random());
+    }
+
+    public ParticleManager(IRenderer renderer, int capacity, Random random) {
+        this.particles = new ParticlePool(capacity);
+        this.renderer = renderer;
+        this.random = random;
+        this.emitters = new ArrayList<>();
+        this.freeEmitters = new ArrayDeque<>();
+        this.budget = particles.getCapacity();
+        setCulling(true);
+    }
+
+    /**
+     * Takes an emitter from the free list (or creates one) and spawns the config's initial particles.
+     */
+    public ParticleEmitter createEmitter(ParticleSystem.Config config, float x, float y) {
+        ParticleEmitter emitter = freeEmitters.poll();
+        if (emitter == null) {
+            emitter = new ParticleEmitter(this);
+        }
+        emitter.reset(config, x, y);
+        emitters.add(emitter);
+        for (int i = 0; i < config.initialCount; i++) {
+            spawnParticle(config, x, y, emitter.getPriority());
+        }
+        return emitter;
+    }
+
+    /**
+     * Spawns a burst described by the config at the config's priority, as much of it as the budget allows.
+     */
+    public void burst(ParticleSystem.Config config, float x, float y, int count) {
+        burst(config, x, y, count, config.priority);
+    }
+
+    public void burst(ParticleSystem.Config config, float x, float y, int count, int priority) {
+        int admitted = admit(count, priority);
+        if (admitted > 0) {
+            ParticleSystem.burst(particles, config, random, x, y, admitted, lifetimeScale());
+        }
+    }
+
+    void spawnParticle(ParticleSystem.Config config, float x, float y, int priority) {
+        if (admit(1, priority) > 0) {
+            ParticleSystem.spawnParticle(particles, config, random, x, y, lifetimeScale());
+        }
+    }
+
+    /**
+     * How many of the requested particles fit under the share of the budget open to the priority.
+     */
+    private int admit(int count, int priority) {
+        float share = Math.min(1f, 0.5f + 0.25f * Math.max(0, priority));
+        int limit = Math.min(particles.getCapacity(), (int) (budget * share));
+        int admitted = Math.max(0, Math.min(count, limit - particles.size()));
+        droppedCount += count - admitted;
+        return admitted;
+    }
+
+    /**
+     * 1 up to half the budget, then falling linearly to 0.25 at a full budget.
+     */
+    private float lifetimeScale() {
+        if (budget <= 0) return 1f;
+        float pressure = particles.size() / (float) budget;
+        if (pressure <= 0.5f) return 1f;
+        return Math.max(0.25f, 1f - (pressure - 0.5f) * 1.5f);
+    }
+
+    /**
+     * Updates large particle counts in parallel on the pool, see {@link ParticlePool#setExecutor}.
+     */
+    public void setExecutor(ForkJoinPool executor) {
+        particles.setExecutor(executor);
+    }
+
+    /**
+     * Lets emitters spawn, recycles released ones, then advances every particle.
+     */
+    public void update(float deltaTime) {
+        for (int i = emitters.size() - 1; i >= 0; i--) {
+            ParticleEmitter emitter = emitters.get(i);
+            if (emitter.isReleased()) {
+                int last = emitters.size() - 1;
+                emitters.set(i, emitters.get(last));
+                emitters.remove(last);
+                freeEmitters.push(emitter);
+            } else {
+                emitter.update(deltaTime);
+            }
+        }
+        particles.update(deltaTime, ParticleSystem.DAMPING);
+    }
+
+    public void render() {
+        ParticleSystem.renderParticles(particles, renderer);
+    }
+
+    /**
+     * Removes every particle and releases every emitter.
+     */
+    public void clear() {
+        particles.clear();
+        for (ParticleEmitter emitter : emitters) {
+            emitter.release();
+            freeEmitters.push(emitter);
+        }
+        emitters.clear();
+    }
+
+    public int getParticleCount() {
+        return particles.size();
+    }
+
+    public int getCapacity() {
+        return particles.getCapacity();
+    }
+
+    /**
+     * Caps the live particle count, at most the capacity; existing particles above a lowered
+     * budget are not removed but no new ones spawn until the count falls.
+     */
+    public void setBudget(int budget) {
+        this.budget = Math.max(0, Math.min(particles.getCapacity(), budget));
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Spawns refused by the budget since the manager was created.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Turns culling of offscreen and faded particles on or off; on by default with a renderer.
+     */
+    public void setCulling(boolean enabled) {
+        if (!enabled) {
+            particles.disableCulling();
+        } else if (renderer != null) {
+            particles.setCulling(-ParticleSystem.VIEW_MARGIN, -ParticleSystem.VIEW_MARGIN,
+                renderer.getWidth() + ParticleSystem.VIEW_MARGIN, renderer.getHeight() + ParticleSystem.VIEW_MARGIN,
+                ParticleSystem.MIN_VISIBLE_ALPHA);
+        }
+    }
+
+    /**
+     * Emitters in use, not counting recycled ones.
+     */
+    public int getEmitterCount() {
+        return emitters.size();
+    }
+
+    public ParticlePool getParticles() {
+        return particles;
+    }
+}
@@ -0,0 +1,381 @@
+package com.gameengine.core;
+
+import com.gameengine.math.BatchKernels;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Fixed-capacity structure-of-arrays particle store. Live particles occupy indices
+ * {@code [0, size())} in spawn order; dead ones are squeezed out by a stable compaction after
+ * each update, so the live range stays dense for the {@link BatchKernels} loops. Spawning,
+ * updating and reading never allocate on the sequential path; spawns beyond the capacity are
+ * dropped.
+ * <p>
+ * Culling, when enabled, ends particles that have left the visible area or faded below the
+ * drawing threshold right after they are stepped. Particles fly in straight lines and only fade,
+ * so such a particle could never be drawn again.
+ * <p>
+ * With an executor set, large updates are split into ranges on the fork-join pool: each range is
+ * stepped and counts its survivors, a prefix sum over the counts gives every range its output
+ * offset, and the ranges then copy their survivors into a second set of arrays that becomes the
+ * live one. Particles are stepped independently and keep their order, so the result is identical
+ * to the sequential update.
+ */
+public class ParticlePool {
+    private final int capacity;
+    private Columns data;
+    private Columns back;
+    private int count;
+    private ForkJoinPool executor;
+    private AdaptiveGranularity granularity;
+    private Future<?>[] futures = new Future<?>[0];
+    private int[] aliveCounts = new int[0];
+    private long[] taskNanos = new long[0];
+    private int[] culledCounts = new int[0];
+    private boolean culling;
+    private float cullMinX;
+    private float cullMinY;
+    private float cullMaxX;
+    private float cullMaxY;
+    private float cullAlpha;
+    private int lastCulled;
+
+    public ParticlePool(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.data = new Columns(this.capacity);
+    }
+
+    /**
+     * Adds a particle at full alpha; colors are clamped to [0, 1].
+     *
+     * @return its index, or -1 if the pool is full or {@code lifetime} is not positive
+     */
+    public int spawn(float px, float py, float velocityX, float velocityY, float lifetime, float particleSize,
+                     float red, float green, float blue) {
+        return spawn(px, py, velocityX, velocityY, lifetime, particleSize, red, green, blue, 1f, 0f);
+    }
+
+    /**
+     * Adds a particle carrying its own render style, so particles of differently configured
+     * emitters can share one pool.
+     *
+     * @param opacityMultiplier scales the fading alpha when drawn
+     * @param minSize smallest size the particle is drawn at while it shrinks
+     */
+    public int spawn(float px, float py, float velocityX, float velocityY, float lifetime, float particleSize,
+                     float red, float green, float blue, float opacityMultiplier, float minSize) {
+        if (count == capacity || !(lifetime > 0f)) return -1;
+        int i = count++;
+        Columns d = data;
+        d.x[i] = px;
+        d.y[i] = py;
+        d.vx[i] = velocityX;
+        d.vy[i] = velocityY;
+        d.life[i] = lifetime;
+        d.maxLife[i] = lifetime;
+        d.size[i] = particleSize;
+        d.r[i] = clamp01(red);
+        d.g[i] = clamp01(green);
+        d.b[i] = clamp01(blue);
+        d.alpha[i] = 1f;
+        d.opacity[i] = opacityMultiplier;
+        d.minRenderSize[i] = minSize;
+        return i;
+    }
+
+    private static float clamp01(float value) {
+        return Math.min(1f, Math.max(0f, value));
+    }
+
+    /**
+     * Runs large updates in parallel on the pool; null keeps every update on the calling thread.
+     */
+    public void setExecutor(ForkJoinPool executor) {
+        this.executor = executor;
+        this.granularity = executor != null ? new AdaptiveGranularity(executor.getParallelism()) : null;
+    }
+
+    /**
+     * Ends particles outside the box or whose alpha times opacity drops to {@code minAlpha} or below
+     * on every later update.
+     */
+    public void setCulling(float minX, float minY, float maxX, float maxY, float minAlpha) {
+        this.culling = true;
+        this.cullMinX = minX;
+        this.cullMinY = minY;
+        this.cullMaxX = maxX;
+        this.cullMaxY = maxY;
+        this.cullAlpha = minAlpha;
+    }
+
+    public void disableCulling() {
+        this.culling = false;
+    }
+
+    public boolean isCulling() {
+        return culling;
+    }
+
+    /**
+     * Particles removed by culling, rather than by running out of life, in the last update.
+     */
+    public int getLastCulledCount() {
+        return lastCulled;
+    }
+
+    /**
+     * Moves and ages every particle (see {@link BatchKernels#decayParticles}), then removes the
+     * ones whose life ran out, keeping the survivors in order.
+     */
+    public void update(float deltaTime, float damping) {
+        int items = count;
+        int tasks = granularity != null ? granularity.plan(items) : 1;
+        long startNanos = System.nanoTime();
+        lastCulled = 0;
+        if (tasks == 1) {
+            count = updateRange(data, 0, items, deltaTime, damping);
+            if (granularity != null) {
+                long elapsed = System.nanoTime() - startNanos;
+                granularity.record(items, 1, elapsed, elapsed);
+            }
+        } else if (tasks > 1) {
+            int submitted = updateParallel(tasks, deltaTime, damping);
+            long workNanos = 0L;
+            for (int task = 0; task < submitted; task++) {
+                workNanos += taskNanos[task];
+            }
+            granularity.record(items, submitted, System.nanoTime() - startNanos, workNanos);
+        }
+    }
+
+    /**
+     * Steps [start, end) and compacts its survivors to the front of the range.
+     *
+     * @return the index after the last survivor
+     */
+    private int updateRange(Columns d, int start, int end, float deltaTime, float damping) {
+        BatchKernels.decayParticles(d.x, d.y, d.vx, d.vy, d.life, d.maxLife, d.alpha, damping, deltaTime, start, end);
+        lastCulled = cull(d, start, end);
+        float[] life = d.life;
+        int alive = start;
+        for (int i = start; i < end; i++) {
+            if (life[i] > 0f) {
+                if (alive != i) d.copy(i, d, alive);
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    private int cull(Columns d, int start, int end) {
+        if (!culling) return 0;
+        return BatchKernels.cullParticles(d.x, d.y, d.alpha, d.opacity, d.life,
+            cullMinX, cullMinY, cullMaxX, cullMaxY, cullAlpha, start, end);
+    }
+
+    private int updateParallel(int tasks, float deltaTime, float damping) {
+        if (back == null) {
+            back = new Columns(capacity);
+        }
+        if (futures.length < tasks) {
+            futures = new Future<?>[tasks];
+            aliveCounts = new int[tasks];
+            culledCounts = new int[tasks];
+            taskNanos = new long[tasks];
+        }
+        final Columns source = data;
+        final Columns target = back;
+        int batchSize = (count + tasks - 1) / tasks;
+        int submitted = 0;
+        for (int i = 0; i < count; i += batchSize) {
+            final int start = i;
+            final int end = Math.min(i + batchSize, count);
+            final int task = submitted++;
+            futures[task] = executor.submit(() -> {
+                long taskStart = System.nanoTime();
+                BatchKernels.decayParticles(source.x, source.y, source.vx, source.vy, source.life, source.maxLife,
+                    source.alpha, damping, deltaTime, start, end);
+                culledCounts[task] = cull(source, start, end);
+                int alive = 0;
+                for (int p = start; p < end; p++) {
+                    if (source.life[p] > 0f) alive++;
+                }
+                aliveCounts[task] = alive;
+                taskNanos[task] = System.nanoTime() - taskStart;
+            });
+        }
+        join(submitted);
+
+        // Exclusive prefix sum: where each range's survivors start in the compacted arrays
+        int total = 0;
+        for (int task = 0; task < submitted; task++) {
+            lastCulled += culledCounts[task];
+            int alive = aliveCounts[task];
+            aliveCounts[task] = total;
+            total += alive;
+        }
+
+        for (int task = 0; task < submitted; task++) {
+            final int start = task * batchSize;
+            final int end = Math.min(start + batchSize, count);
+            final int offset = aliveCounts[task];
+            final int index = task;
+            futures[task] = executor.submit(() -> {
+                long taskStart = System.nanoTime();
+                int out = offset;
+                for (int p = start; p < end; p++) {
+                    if (source.life[p] > 0f) {
+                        source.copy(p, target, out++);
+                    }
+                }
+                taskNanos[index] += System.nanoTime() - taskStart;
+            });
+        }
+        join(submitted);
+
+        data = target;
+        back = source;
+        count = total;
+        return submitted;
+    }
+
+    private void join(int submitted) {
+        for (int task = 0; task < submitted; task++) {
+            try {
+                futures[task].get();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            futures[task] = null;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * Split decisions for parallel updates, or null without an executor.
+     */
+    public AdaptiveGranularity getGranularity() {
+        return granularity;
+    }
+
+    public float getX(int index) {
+        return data.x[index];
+    }
+
+    public float getY(int index) {
+        return data.y[index];
+    }
+
+    public float getVelocityX(int index) {
+        return data.vx[index];
+    }
+
+    public float getVelocityY(int index) {
+        return data.vy[index];
+    }
+
+    /**
+     * Seconds left to live.
+     */
+    public float getLife(int index) {
+        return data.life[index];
+    }
+
+    public float getSize(int index) {
+        return data.size[index];
+    }
+
+    public float getR(int index) {
+        return data.r[index];
+    }
+
+    public float getG(int index) {
+        return data.g[index];
+    }
+
+    public float getB(int index) {
+        return data.b[index];
+    }
+
+    /**
+     * Remaining fraction of the lifetime, in (0, 1] for live particles.
+     */
+    public float getAlpha(int index) {
+        return data.alpha[index];
+    }
+
+    public float getOpacity(int index) {
+        return data.opacity[index];
+    }
+
+    public float getMinRenderSize(int index) {
+        return data.minRenderSize[index];
+    }
+
+    /**
+     * One full set of per-particle arrays; the parallel update compacts from one set into another.
+     */
+    private static final class Columns {
+        final float[] x;
+        final float[] y;
+        final float[] vx;
+        final float[] vy;
+        final float[] life;
+        final float[] maxLife;
+        final float[] size;
+        final float[] r;
+        final float[] g;
+        final float[] b;
+        final float[] alpha;
+        final float[] opacity;
+        final float[] minRenderSize;
+
+        Columns(int capacity) {
+            x = new float[capacity];
+            y = new float[capacity];
+            vx = new float[capacity];
+            vy = new float[capacity];
+            life = new float[capacity];
+            maxLife = new float[capacity];
+            size = new float[capacity];
+            r = new float[capacity];
+            g = new float[capacity];
+            b = new float[capacity];
+            alpha = new float[capacity];
+            opacity = new float[capacity];
+            minRenderSize = new float[capacity];
+        }
+
+        void copy(int from, Columns to, int index) {
+            to.x[index] = x[from];
+            to.y[index] = y[from];
+            to.vx[index] = vx[from];
+            to.vy[index] = vy[from];
+            to.life[index] = life[from];
+            to.maxLife[index] = maxLife[from];
+            to.size[index] = size[from];
+            to.r[index] = r[from];
+            to.g[index] = g[from];
+            to.b[index] = b[from];
+            to.alpha[index] = alpha[from];
+            to.opacity[index] = opacity[from];
+            to.minRenderSize[index] = minRenderSize[from];
+        }
+    }
+}
@@ -1,82 +1,28 @@
 package com.gameengine.core;
 
 import com.gameengine.graphics.IRenderer;
+import com.gameengine.math.FastTrig;
 import com.gameengine.math.Vector2;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Iterator;
 import java.util.Random;
 
 public class ParticleSystem {
-    private List<Particle> particles;
+    static final float DAMPING = 0.98f;
+    /** Particles further than this outside the screen are not drawn. */
+    static final float VIEW_MARGIN = 50f;
+    /** Particles whose alpha falls to this or below are not drawn. */
+    static final float MIN_VISIBLE_ALPHA = 0.01f;
+    
+    private final ParticlePool particles;
     private Random random;
     private IRenderer renderer;
     private float spawnRate;
     private float timeSinceLastSpawn;
-    private Vector2 position;
+    private float positionX;
+    private float positionY;
     private boolean active;
     
     private Config config;
     
-    private static class Particle {
-        private Vector2 position;
-        private Vector2 velocity;
-        private float life;
-        private float maxLife;
-        private float size;
-        private float r, g, b, a;
-        
-        public Particle(Vector2 position, Vector2 velocity, float life, float size, float r, float g, float b) {
-            this.position = new Vector2(position);
-            this.velocity = new Vector2(velocity);
-            this.maxLife = life;
-            this.life = life;
-            this.size = size;
-            this.r = r;
-            this.g = g;
-            this.b = b;
-            this.a = 1.0f;
-        }
-        
-        public void update(float deltaTime) {
-            position = position.add(velocity.multiply(deltaTime));
-            life -= deltaTime;
-            
-            if (life > 0) {
-                a = life / maxLife;
-                velocity = velocity.multiply(0.98f);
-            }
-        }
-        
-        public boolean isAlive() {
-            return life > 0;
-        }
-        
-        public Vector2 getPosition() {
-            return new Vector2(position);
-        }
-        
-        public float getSize() {
-            return size;
-        }
-        
-        public float getR() {
-            return r;
-        }
-        
-        public float getG() {
-            return g;
-        }
-        
-        public float getB() {
-            return b;
-        }
-        
-        public float getA() {
-            return a;
-        }
-    }
-    
     public static class Config {
         public float spawnRate = 0.015f;
         public int initialCount = 30;
@@ -91,6 +37,10 @@ public class ParticleSystem {
         public float b = 0.0f;
         public float opacityMultiplier = 1.0f;
         public float minRenderSize = 2.0f;
+        /** Maximum live particles; spawns beyond it are dropped. */
+        public int capacity = 512;
+        /** Importance under a {@link ParticleManager} budget; higher priorities keep spawning longer. */
+        public int priority = 0;
         
         public float burstSpeedMin = 80f;
         public float burstSpeedMax = 200f;
@@ -145,10 +95,11 @@ public class ParticleSystem {
     }
     
     public ParticleSystem(IRenderer renderer, Vector2 position, Config config) {
-        this.particles = new ArrayList<>();
+        this.particles = new ParticlePool(config.capacity);
         this.random = new Random();
         this.renderer = renderer;
-        this.position = new Vector2(position);
+        this.positionX = position.x;
+        this.positionY = position.y;
         this.config = config;
         this.spawnRate = config.spawnRate;
         this.timeSinceLastSpawn = 0f;
@@ -165,7 +116,8 @@ public class ParticleSystem {
     
     public void setPosition(Vector2 position) {
         if (position != null) {
-            this.position = new Vector2(position);
+            this.positionX = position.x;
+            this.positionY = position.y;
         }
     }
     
@@ -178,27 +130,25 @@ public class ParticleSystem {
             }
         }
         
-        Iterator<Particle> iterator = particles.iterator();
-        while (iterator.hasNext()) {
-            Particle particle = iterator.next();
-            particle.update(deltaTime);
-            if (!particle.isAlive()) {
-                iterator.remove();
-            }
-        }
+        particles.update(deltaTime, DAMPING);
     }
     
     private void spawnParticle() {
-        if (position == null) return;
-        
-        float angle = (float) (random.nextFloat() * 2.0 * Math.PI);
+        spawnParticle(particles, config, random, positionX, positionY, 1f);
+    }
+    
+    /**
+     * Spawns one particle of the continuous stream described by the config.
+     *
+     * @param lifeScale multiplies the sampled lifetime
+     */
+    static void spawnParticle(ParticlePool particles, Config config, Random random, float x, float y, float lifeScale) {
+        if (particles.isFull()) return;
+        
+        float angle = random.nextFloat() * FastTrig.TWO_PI;
         float speed = config.speedMin + random.nextFloat() * (config.speedMax - config.speedMin);
-        Vector2 velocity = new Vector2(
-            (float) (Math.cos(angle) * speed),
-            (float) (Math.sin(angle) * speed)
-        );
         
-        float life = config.lifeMin + random.nextFloat() * (config.lifeMax - config.lifeMin);
+        float life = (config.lifeMin + random.nextFloat() * (config.lifeMax - config.lifeMin)) * lifeScale;
         float size = config.sizeMin + random.nextFloat() * (config.sizeMax - config.sizeMin);
         
         float r = config.r;
@@ -212,8 +162,8 @@ public class ParticleSystem {
             g = config.g + random.nextFloat() * 0.2f;
         }
         
-        Particle particle = new Particle(new Vector2(position), velocity, life, size, r, g, b);
-        particles.add(particle);
+        particles.spawn(x, y, FastTrig.cos(angle) * speed, FastTrig.sin(angle) * speed, life, size, r, g, b,
+            config.opacityMultiplier, config.minRenderSize);
     }
     
     public void setSpawnRate(float rate) {
@@ -221,26 +171,32 @@ public class ParticleSystem {
     }
     
     public void render() {
+        renderParticles(particles, renderer);
+    }
+    
+    /**
+     * Draws every visible particle of the pool as a fading square.
+     */
+    static void renderParticles(ParticlePool particles, IRenderer renderer) {
         if (renderer == null) return;
         
-        for (Particle particle : particles) {
-            Vector2 pos = particle.getPosition();
-            float size = particle.getSize();
-            
-            float r = Math.min(1.0f, Math.max(0.0f, particle.getR()));
-            float g = Math.min(1.0f, Math.max(0.0f, particle.getG()));
-            float b = Math.min(1.0f, Math.max(0.0f, particle.getB()));
-            float a = Math.min(1.0f, Math.max(0.0f, particle.getA())) * config.opacityMultiplier;
+        float maxW = renderer.getWidth();
+        float maxH = renderer.getHeight();
+        int count = particles.size();
+        for (int i = 0; i < count; i++) {
+            float x = particles.getX(i);
+            float y = particles.getY(i);
+            // Colors are clamped on spawn and alpha stays in (0, 1] while alive
+            float a = particles.getAlpha(i) * particles.getOpacity(i);
             
-            float maxW = renderer != null ? renderer.getWidth() : 1920;
-            float maxH = renderer != null ? renderer.getHeight() : 1080;
-            if (a > 0.01f && pos.x >= -50 && pos.x <= maxW + 50 && pos.y >= -50 && pos.y <= maxH + 50) {
-                float renderSize = Math.max(config.minRenderSize, size * a);
+            if (a > MIN_VISIBLE_ALPHA && x >= -VIEW_MARGIN && x <= maxW + VIEW_MARGIN
+                && y >= -VIEW_MARGIN && y <= maxH + VIEW_MARGIN) {
+                float renderSize = Math.max(particles.getMinRenderSize(i), particles.getSize(i) * a);
                 try {
                     renderer.drawRect(
-                        pos.x - renderSize * 0.5f, pos.y - renderSize * 0.5f, 
+                        x - renderSize * 0.5f, y - renderSize * 0.5f, 
                         renderSize, renderSize,
-                        r, g, b, a
+                        particles.getR(i), particles.getG(i), particles.getB(i), a
                     );
                 } catch (Exception e) {
                 }
@@ -249,23 +205,30 @@ public class ParticleSystem {
     }
     
     public void burst(int count) {
+        burst(particles, config, random, positionX, positionY, count, 1f);
+    }
+    
+    /**
+     * Spawns a burst described by the config, as many as the pool has room for.
+     *
+     * @param lifeScale multiplies each sampled lifetime
+     */
+    static void burst(ParticlePool particles, Config config, Random random, float x, float y, int count,
+                      float lifeScale) {
+        count = Math.min(count, particles.getCapacity() - particles.size());
         for (int i = 0; i < count; i++) {
-            float angle = (float) (random.nextFloat() * 2.0 * Math.PI);
+            float angle = random.nextFloat() * FastTrig.TWO_PI;
             float speed = config.burstSpeedMin + random.nextFloat() * (config.burstSpeedMax - config.burstSpeedMin);
-            Vector2 velocity = new Vector2(
-                (float) (Math.cos(angle) * speed),
-                (float) (Math.sin(angle) * speed)
-            );
             
-            float life = config.burstLifeMin + random.nextFloat() * (config.burstLifeMax - config.burstLifeMin);
+            float life = (config.burstLifeMin + random.nextFloat() * (config.burstLifeMax - config.burstLifeMin)) * lifeScale;
             float size = config.burstSizeMin + random.nextFloat() * (config.burstSizeMax - config.burstSizeMin);
             
             float r = config.burstR;
             float g = config.burstGMin + random.nextFloat() * (config.burstGMax - config.burstGMin);
             float b = config.burstB;
             
-            Particle particle = new Particle(new Vector2(position), velocity, life, size, r, g, b);
-            particles.add(particle);
+            particles.spawn(x, y, FastTrig.cos(angle) * speed, FastTrig.sin(angle) * speed, life, size, r, g, b,
+                config.opacityMultiplier, config.minRenderSize);
         }
     }
     
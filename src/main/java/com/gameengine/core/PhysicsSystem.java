@@ -1,12 +1,13 @@
 package com.gameengine.core;
 
+import com.gameengine.components.ColliderComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.components.PhysicsComponent;
-import com.gameengine.math.Vector2;
+import com.gameengine.math.BatchKernels;
 import com.gameengine.scene.Scene;
 
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -18,117 +19,611 @@ public class PhysicsSystem {
     private int screenWidth;
     private int screenHeight;
     
+    private static final float BOUNDARY_MARGIN = 15f;
+    private static final float OBSTACLE_CELL_SIZE = 16f;
+    
+    // Structure-of-arrays scratch buffers, reused across ticks
+    private TransformComponent[] transforms = new TransformComponent[0];
+    private float[] posX = new float[0];
+    private float[] posY = new float[0];
+    private float[] velX = new float[0];
+    private float[] velY = new float[0];
+    private float[] accX = new float[0];
+    private float[] accY = new float[0];
+    private float[] friction = new float[0];
+    // Collider box relative to the body position for obstacle resolution; NaN width means no box
+    private float[] boxOffsetX = new float[0];
+    private float[] boxOffsetY = new float[0];
+    private float[] boxWidth = new float[0];
+    private float[] boxHeight = new float[0];
+    private float[] stepStartX = new float[0];
+    private float[] stepStartY = new float[0];
+    private PhysicsComponent[] bodies = new PhysicsComponent[0];
+    
+    // Island bookkeeping for sleeping
+    private int[] islandParent = new int[0];
+    private boolean[] islandRestless = new boolean[0];
+    private int[] slotToBody = new int[0];
+    private int activeBodyCount;
+    private int sleepingBodyCount;
+    
+    // Substepping: fixed count, or adaptive from the fastest body against the smallest collider
+    private int substeps = 1;
+    private boolean adaptiveSubsteps;
+    private int maxSubsteps = 8;
+    private float maxTravelFraction = 0.5f;
+    private int lastSubstepCount = 1;
+    private boolean substepBudgetExceeded;
+    private float lastMaxSpeed;
+    
+    // Pairs in contact at the end of the previous tick, sorted by slot pair key
+    private long[] cachedPairKeys = new long[0];
+    private ColliderComponent[] cachedPairA = new ColliderComponent[0];
+    private ColliderComponent[] cachedPairB = new ColliderComponent[0];
+    private int cachedPairCount;
+    private long[] nextPairKeys = new long[0];
+    private ColliderComponent[] nextPairA = new ColliderComponent[0];
+    private ColliderComponent[] nextPairB = new ColliderComponent[0];
+    private final CollisionEvents events = new CollisionEvents();
+    private final ContactSolver contactSolver = new ContactSolver();
+    private PhysicsThread physicsThread;
+    
+    // Static level geometry, baked from the collision world's static colliders
+    private final ObstacleGrid obstacles;
+    private int bakedStaticVersion;
+    
+    // Integration scheduling, learned from measured cost (one item is one body for one substep)
+    private final AdaptiveGranularity granularity;
+    private Future<?>[] integrationFutures = new Future<?>[0];
+    private long[] taskNanos = new long[0];
+    
     public PhysicsSystem(Scene scene) {
         this(scene, 1920, 1080);
     }
     
     public PhysicsSystem(Scene scene, int screenWidth, int screenHeight) {
+        this(scene, screenWidth, screenHeight, true);
+    }
+    
+    /**
+     * @param parallel false runs every stage on the updating thread without creating a worker pool
+     */
+    public PhysicsSystem(Scene scene, int screenWidth, int screenHeight, boolean parallel) {
         this.scene = scene;
         this.screenWidth = screenWidth;
         this.screenHeight = screenHeight;
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        this.physicsExecutor = Executors.newFixedThreadPool(threadCount);
+        int threadCount = parallel ? Math.max(2, Runtime.getRuntime().availableProcessors() - 1) : 1;
+        this.physicsExecutor = parallel ? Executors.newFixedThreadPool(threadCount) : null;
+        // Pool threads beyond the core count only time-slice, so they do not count as parallelism
+        this.granularity = new AdaptiveGranularity(Math.min(threadCount, Runtime.getRuntime().availableProcessors()));
+        scene.getCollisionWorld().setExecutor(physicsExecutor);
+        this.obstacles = new ObstacleGrid(OBSTACLE_CELL_SIZE,
+            (int) Math.ceil(screenWidth / OBSTACLE_CELL_SIZE), (int) Math.ceil(screenHeight / OBSTACLE_CELL_SIZE));
     }
     
+    /**
+     * Advances one tick: integrates awake bodies (stopping them at static geometry), steps the
+     * scene's collision world once, resolves the contacts with the {@link ContactSolver}, turns them
+     * into enter/stay/exit events, updates sleeping and finally hands the event batch to the scene's
+     * collision listeners.
+     */
     public void update(float deltaTime) {
+        CollisionWorld world = scene.getCollisionWorld();
+        // Re-attached every tick because the scene drops its world when the broadphase changes
+        world.setExecutor(physicsExecutor);
+        
         List<PhysicsComponent> physicsComponents = scene.getComponents(PhysicsComponent.class);
-        if (physicsComponents.isEmpty()) return;
+        ensureCapacity(physicsComponents.size());
+        if (physicsThread != null) {
+            // Integration runs on the physics thread; collisions and events stay with gameplay on this one
+            activeBodyCount = physicsThread.sync(physicsComponents, deltaTime);
+        } else {
+            integrate(physicsComponents, deltaTime);
+        }
         
-        int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-        threadCount = Math.max(2, threadCount);
-        int batchSize = Math.max(1, physicsComponents.size() / threadCount + 1);
+        world.update(scene);
+        if (world.getStaticVersion() != bakedStaticVersion) {
+            bakeObstacles();
+        }
+        contactSolver.solve(world, physicsExecutor);
+        updateContactEvents(world);
+        updateSleep(physicsComponents);
+        dispatchCollisionEvents();
+    }
+    
+    private void integrate(List<PhysicsComponent> physicsComponents, float deltaTime) {
+        int total = physicsComponents.size();
+        // Only awake bodies are integrated; sleeping ones keep their position until woken
+        int count = 0;
+        float maxSpeedSq = 0f;
+        float minSize = Float.MAX_VALUE;
+        for (int i = 0; i < total; i++) {
+            PhysicsComponent physics = physicsComponents.get(i);
+            if (physics.isEnabled() && !physics.isSleeping()) {
+                bodies[count++] = physics;
+                if (adaptiveSubsteps) {
+                    float vx = physics.getVelocityX();
+                    float vy = physics.getVelocityY();
+                    maxSpeedSq = Math.max(maxSpeedSq, vx * vx + vy * vy);
+                    GameObject owner = physics.getOwner();
+                    ColliderComponent collider = owner != null ? owner.getComponent(ColliderComponent.class) : null;
+                    if (collider != null && collider.isEnabled()) {
+                        float size = Math.min(collider.getWidth(), collider.getHeight());
+                        if (size > 0f) {
+                            minSize = Math.min(minSize, size);
+                        }
+                    }
+                }
+            }
+        }
+        activeBodyCount = count;
+        lastMaxSpeed = (float) Math.sqrt(maxSpeedSq);
         
-        List<Future<?>> futures = new ArrayList<>();
+        int steps = chooseSubsteps(lastMaxSpeed, minSize, deltaTime);
+        lastSubstepCount = steps;
+        final float stepTime = deltaTime / steps;
         
-        for (int i = 0; i < physicsComponents.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, physicsComponents.size());
+        int items = count * steps;
+        int tasks = granularity.plan(items);
+        long startNanos = System.nanoTime();
+        long workNanos = 0L;
+        if (tasks == 1) {
+            // Fast path: too little work to pay for a hand-off to the pool
+            integrateRange(0, count, steps, stepTime, deltaTime);
+            workNanos = System.nanoTime() - startNanos;
+        } else if (tasks > 1) {
+            if (integrationFutures.length < tasks) {
+                integrationFutures = new Future<?>[tasks];
+                taskNanos = new long[tasks];
+            }
+            int batchSize = (count + tasks - 1) / tasks;
+            int submitted = 0;
+            for (int i = 0; i < count; i += batchSize) {
+                final int start = i;
+                final int end = Math.min(i + batchSize, count);
+                final int task = submitted++;
+                
+                integrationFutures[task] = physicsExecutor.submit(() -> {
+                    long taskStart = System.nanoTime();
+                    integrateRange(start, end, steps, stepTime, deltaTime);
+                    taskNanos[task] = System.nanoTime() - taskStart;
+                });
+            }
             
-            Future<?> future = physicsExecutor.submit(() -> {
-                for (int j = start; j < end; j++) {
-                    PhysicsComponent physics = physicsComponents.get(j);
-                    if (physics.isEnabled()) {
-                        updatePhysics(physics, deltaTime);
-                        handleBoundary(physics);
-                    }
+            for (int task = 0; task < submitted; task++) {
+                try {
+                    integrationFutures[task].get();
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
-            });
-            
-            futures.add(future);
+                integrationFutures[task] = null;
+                workNanos += taskNanos[task];
+            }
+            tasks = submitted;
         }
-        
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (Exception e) {
-                e.printStackTrace();
+        granularity.record(items, tasks, System.nanoTime() - startNanos, workNanos);
+        Arrays.fill(bodies, 0, count, null);
+    }
+    
+    private void integrateRange(int start, int end, int steps, float stepTime, float deltaTime) {
+        gather(start, end, steps);
+        boolean hasObstacles = !obstacles.isEmpty();
+        for (int step = 0; step < steps; step++) {
+            if (hasObstacles) {
+                System.arraycopy(posX, start, stepStartX, start, end - start);
+                System.arraycopy(posY, start, stepStartY, start, end - start);
+            }
+            BatchKernels.integrate(posX, posY, velX, velY, accX, accY, friction, stepTime, start, end);
+            BatchKernels.clampAndReflect(posX, posY, velX, velY,
+                0, 0, screenWidth - BOUNDARY_MARGIN, screenHeight - BOUNDARY_MARGIN, start, end);
+            if (hasObstacles) {
+                obstacles.resolveMoves(stepStartX, stepStartY, posX, posY, velX, velY,
+                    boxOffsetX, boxOffsetY, boxWidth, boxHeight, start, end);
             }
         }
+        scatter(start, end, deltaTime);
     }
     
-    private void updatePhysics(PhysicsComponent physics, float deltaTime) {
-        GameObject owner = physics.getOwner();
-        if (owner == null) return;
-        
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
-        if (transform == null) return;
-        
-        Vector2 acceleration = physics.getAcceleration();
-        
-        if (physics.isUseGravity()) {
-            acceleration = acceleration.add(physics.getGravity());
-            physics.setAcceleration(acceleration);
+    /**
+     * Rebuilds the obstacle grid from the collision world's static colliders. Runs automatically
+     * when that set changes; call it directly after moving or resizing a static collider.
+     */
+    public void bakeObstacles() {
+        CollisionWorld world = scene.getCollisionWorld();
+        obstacles.clear();
+        List<ColliderComponent> statics = world.getStaticColliders();
+        for (int i = 0; i < statics.size(); i++) {
+            ColliderComponent collider = statics.get(i);
+            collider.updateBounds();
+            obstacles.fillBox(collider.getMinX(), collider.getMinY(), collider.getMaxX(), collider.getMaxY());
+        }
+        bakedStaticVersion = world.getStaticVersion();
+        if (physicsThread != null) {
+            physicsThread.setObstacles(new ObstacleGrid(obstacles));
+        }
+    }
+    
+    /**
+     * Static geometry that awake bodies are resolved against during integration.
+     */
+    public ObstacleGrid getObstacleGrid() {
+        return obstacles;
+    }
+    
+    /**
+     * Fixed mode returns the configured count. Adaptive mode picks enough substeps that the fastest
+     * body moves at most {@code maxTravelFraction} of the smallest collider size per substep, capped
+     * at {@code maxSubsteps}.
+     */
+    private int chooseSubsteps(float maxSpeed, float minSize, float deltaTime) {
+        substepBudgetExceeded = false;
+        if (!adaptiveSubsteps) {
+            return substeps;
+        }
+        if (minSize == Float.MAX_VALUE || maxSpeed <= 0f || deltaTime <= 0f) {
+            return 1;
+        }
+        float travelPerStep = minSize * maxTravelFraction;
+        double wanted = Math.ceil(maxSpeed * deltaTime / travelPerStep);
+        if (wanted > maxSubsteps) {
+            substepBudgetExceeded = true;
+            return maxSubsteps;
+        }
+        return Math.max(1, (int) wanted);
+    }
+    
+    /**
+     * Diffs this tick's contacts against the cached pairs of the previous tick. Both lists are sorted
+     * by slot pair, so one merge pass classifies every pair; a slot pair whose colliders changed
+     * (slot reused by another collider) counts as an exit of the old pair and an enter of the new one.
+     */
+    private void updateContactEvents(CollisionWorld world) {
+        events.clear();
+        ContactBuffer contacts = world.getContacts();
+        int count = contacts.size();
+        if (nextPairKeys.length < count) {
+            int capacity = Math.max(count, nextPairKeys.length * 2);
+            nextPairKeys = new long[capacity];
+            nextPairA = new ColliderComponent[capacity];
+            nextPairB = new ColliderComponent[capacity];
         }
         
-        Vector2 velocity = physics.getVelocity();
-        velocity = velocity.add(acceleration.multiply(deltaTime));
-        velocity = velocity.multiply(physics.getFriction());
-        physics.setVelocity(velocity);
-        
-        Vector2 deltaPosition = velocity.multiply(deltaTime);
-        transform.translate(deltaPosition);
+        int prev = 0;
+        for (int i = 0; i < count; i++) {
+            long key = PairBuffer.key(contacts.getSlotA(i), contacts.getSlotB(i));
+            ColliderComponent a = world.getCollider(contacts.getSlotA(i));
+            ColliderComponent b = world.getCollider(contacts.getSlotB(i));
+            while (prev < cachedPairCount && cachedPairKeys[prev] < key) {
+                emitExit(prev++);
+            }
+            CollisionEvents.Type type = CollisionEvents.Type.ENTER;
+            if (prev < cachedPairCount && cachedPairKeys[prev] == key) {
+                if (cachedPairA[prev] == a && cachedPairB[prev] == b) {
+                    type = CollisionEvents.Type.STAY;
+                } else {
+                    emitExit(prev);
+                }
+                prev++;
+            }
+            events.add(type, a, b, contacts.getNormalX(i), contacts.getNormalY(i),
+                contacts.getDepth(i), contacts.getToi(i));
+            nextPairKeys[i] = key;
+            nextPairA[i] = a;
+            nextPairB[i] = b;
+        }
+        while (prev < cachedPairCount) {
+            emitExit(prev++);
+        }
         
-        physics.setAcceleration(new Vector2());
+        // Swap the cache buffers, dropping references held by the old one
+        Arrays.fill(cachedPairA, 0, cachedPairCount, null);
+        Arrays.fill(cachedPairB, 0, cachedPairCount, null);
+        long[] keys = cachedPairKeys;
+        ColliderComponent[] pairA = cachedPairA;
+        ColliderComponent[] pairB = cachedPairB;
+        cachedPairKeys = nextPairKeys;
+        cachedPairA = nextPairA;
+        cachedPairB = nextPairB;
+        cachedPairCount = count;
+        nextPairKeys = keys;
+        nextPairA = pairA;
+        nextPairB = pairB;
+    }
+    
+    private void emitExit(int cached) {
+        events.add(CollisionEvents.Type.EXIT, cachedPairA[cached], cachedPairB[cached], 0f, 0f, 0f, 0f);
+    }
+    
+    private void dispatchCollisionEvents() {
+        if (events.size() == 0) return;
+        List<CollisionListener> listeners = scene.getCollisionListeners();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onCollisionEvents(events);
+        }
     }
     
-    private void handleBoundary(PhysicsComponent physics) {
-        GameObject owner = physics.getOwner();
-        if (owner == null) return;
+    /**
+     * Events emitted by the last update.
+     */
+    public CollisionEvents getCollisionEvents() {
+        return events;
+    }
+    
+    /**
+     * Groups bodies into islands through the collision world's current pairs and puts an island to
+     * sleep only when all of its members are ready; any member still moving keeps (or wakes) the
+     * whole island, so a sleeping body touched by an awake one resumes simulation.
+     */
+    private void updateSleep(List<PhysicsComponent> physicsComponents) {
+        int total = physicsComponents.size();
+        CollisionWorld world = scene.getCollisionWorld();
+        int slotCount = world.getSlotCount();
+        if (slotToBody.length < slotCount) {
+            slotToBody = new int[Math.max(slotCount, slotToBody.length * 2)];
+        }
+        Arrays.fill(slotToBody, 0, slotCount, -1);
         
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
-        if (transform == null) return;
+        for (int i = 0; i < total; i++) {
+            islandParent[i] = i;
+            PhysicsComponent physics = physicsComponents.get(i);
+            GameObject owner = physics.getOwner();
+            if (!physics.isEnabled() || owner == null) continue;
+            ColliderComponent collider = owner.getComponent(ColliderComponent.class);
+            if (collider == null) continue;
+            int slot = collider.getCollisionIndex();
+            if (slot >= 0 && slot < slotCount && world.getCollider(slot) == collider) {
+                slotToBody[slot] = i;
+            }
+        }
         
-        Vector2 pos = transform.getPosition();
-        Vector2 velocity = physics.getVelocity();
+        PairBuffer pairs = world.getPairs();
+        for (int p = 0; p < pairs.size(); p++) {
+            int a = pairs.getA(p);
+            int b = pairs.getB(p);
+            if (a >= slotCount || b >= slotCount) continue;
+            int bodyA = slotToBody[a];
+            int bodyB = slotToBody[b];
+            if (bodyA >= 0 && bodyB >= 0) {
+                union(bodyA, bodyB);
+            }
+        }
         
-        boolean velocityChanged = false;
-        float velX = velocity.x;
-        float velY = velocity.y;
-        float posX = pos.x;
-        float posY = pos.y;
+        // An island may sleep only if every member is already asleep or ready to sleep
+        Arrays.fill(islandRestless, 0, total, false);
+        for (int i = 0; i < total; i++) {
+            PhysicsComponent physics = physicsComponents.get(i);
+            if (!physics.isEnabled()) continue;
+            if (!physics.isSleeping() && !physics.isReadyToSleep()) {
+                islandRestless[find(i)] = true;
+            }
+        }
         
-        if (posX <= 0 || posX >= screenWidth - 15) {
-            velX = -velX;
-            velocityChanged = true;
+        int sleepingCount = 0;
+        for (int i = 0; i < total; i++) {
+            PhysicsComponent physics = physicsComponents.get(i);
+            if (!physics.isEnabled()) continue;
+            if (islandRestless[find(i)]) {
+                if (physics.isSleeping()) {
+                    physics.wake();
+                }
+            } else if (!physics.isSleeping()) {
+                physics.sleep();
+            }
+            if (physics.isSleeping()) {
+                sleepingCount++;
+            }
         }
-        if (posY <= 0 || posY >= screenHeight - 15) {
-            velY = -velY;
-            velocityChanged = true;
+        sleepingBodyCount = sleepingCount;
+    }
+    
+    private int find(int i) {
+        while (islandParent[i] != i) {
+            islandParent[i] = islandParent[islandParent[i]];
+            i = islandParent[i];
         }
-        
-        if (posX < 0) posX = 0;
-        if (posY < 0) posY = 0;
-        if (posX > screenWidth - 15) posX = screenWidth - 15;
-        if (posY > screenHeight - 15) posY = screenHeight - 15;
-        
-        transform.setPosition(new Vector2(posX, posY));
-        
-        if (velocityChanged) {
-            physics.setVelocity(new Vector2(velX, velY));
+        return i;
+    }
+    
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            islandParent[rootA] = rootB;
+        }
+    }
+    
+    /**
+     * Moves body integration to a dedicated thread stepping at a fixed rate. Each {@link #update}
+     * then exchanges state with it instead of integrating; substepping settings do not apply. The
+     * thread resolves bodies against a copy of the obstacle grid, republished with every bake.
+     */
+    public void startPhysicsThread(int hz) {
+        if (physicsThread != null) return;
+        physicsThread = new PhysicsThread(hz, 0, 0, screenWidth - BOUNDARY_MARGIN, screenHeight - BOUNDARY_MARGIN);
+        physicsThread.setObstacles(new ObstacleGrid(obstacles));
+        physicsThread.start();
+    }
+    
+    public void stopPhysicsThread() {
+        if (physicsThread == null) return;
+        physicsThread.stop();
+        physicsThread = null;
+    }
+    
+    public PhysicsThread getPhysicsThread() {
+        return physicsThread;
+    }
+    
+    /**
+     * Integration scheduler; its stats tell whether the last update ran sequentially or in parallel,
+     * with how many tasks, and the learned sequential threshold.
+     */
+    public AdaptiveGranularity getIntegrationGranularity() {
+        return granularity;
+    }
+    
+    public ContactSolver getContactSolver() {
+        return contactSolver;
+    }
+    
+    /**
+     * Uses a fixed number of substeps per tick (disables adaptive substepping).
+     */
+    public void setSubsteps(int substeps) {
+        this.substeps = Math.max(1, substeps);
+        this.adaptiveSubsteps = false;
+    }
+    
+    public int getSubsteps() {
+        return substeps;
+    }
+    
+    /**
+     * Enables choosing the substep count each tick from body speeds and collider sizes.
+     */
+    public void setAdaptiveSubsteps(boolean adaptive) {
+        this.adaptiveSubsteps = adaptive;
+    }
+    
+    public boolean isAdaptiveSubsteps() {
+        return adaptiveSubsteps;
+    }
+    
+    /**
+     * Hard cap on substeps per tick in adaptive mode.
+     */
+    public void setMaxSubsteps(int maxSubsteps) {
+        this.maxSubsteps = Math.max(1, maxSubsteps);
+    }
+    
+    public int getMaxSubsteps() {
+        return maxSubsteps;
+    }
+    
+    /**
+     * Largest distance, as a fraction of the smallest collider size, a body may move per substep in adaptive mode.
+     */
+    public void setMaxTravelFraction(float fraction) {
+        if (fraction <= 0f) {
+            throw new IllegalArgumentException("fraction must be positive: " + fraction);
+        }
+        this.maxTravelFraction = fraction;
+    }
+    
+    public float getMaxTravelFraction() {
+        return maxTravelFraction;
+    }
+    
+    /**
+     * Substeps used by the last update.
+     */
+    public int getLastSubstepCount() {
+        return lastSubstepCount;
+    }
+    
+    /**
+     * True if the last update wanted more substeps than {@link #getMaxSubsteps()} allowed.
+     */
+    public boolean isSubstepBudgetExceeded() {
+        return substepBudgetExceeded;
+    }
+    
+    /**
+     * Fastest awake body speed seen by the last update (adaptive mode only).
+     */
+    public float getLastMaxSpeed() {
+        return lastMaxSpeed;
+    }
+    
+    /**
+     * Bodies integrated during the last update.
+     */
+    public int getActiveBodyCount() {
+        return activeBodyCount;
+    }
+    
+    /**
+     * Bodies asleep after the last update.
+     */
+    public int getSleepingBodyCount() {
+        return sleepingBodyCount;
+    }
+    
+    private void ensureCapacity(int count) {
+        if (transforms.length >= count) return;
+        int capacity = Math.max(count, transforms.length * 2);
+        bodies = new PhysicsComponent[capacity];
+        transforms = new TransformComponent[capacity];
+        posX = new float[capacity];
+        posY = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        accX = new float[capacity];
+        accY = new float[capacity];
+        friction = new float[capacity];
+        boxOffsetX = new float[capacity];
+        boxOffsetY = new float[capacity];
+        boxWidth = new float[capacity];
+        boxHeight = new float[capacity];
+        stepStartX = new float[capacity];
+        stepStartY = new float[capacity];
+        islandParent = new int[capacity];
+        islandRestless = new boolean[capacity];
+    }
+    
+    /**
+     * Copies body state into the flat arrays. Bodies without a transform get a null transform
+     * slot and zero friction so the kernels leave them at rest and scatter skips them. Friction is a
+     * per-tick velocity factor, so with several substeps each one applies its N-th root. Only solid
+     * colliders are resolved against the obstacle grid; triggers and bodies without one pass through.
+     */
+    private void gather(int start, int end, int steps) {
+        for (int i = start; i < end; i++) {
+            PhysicsComponent physics = bodies[i];
+            GameObject owner = physics.getOwner();
+            TransformComponent transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+            transforms[i] = transform;
+            if (transform == null) {
+                posX[i] = posY[i] = velX[i] = velY[i] = accX[i] = accY[i] = friction[i] = 0;
+                boxWidth[i] = Float.NaN;
+                continue;
+            }
+            posX[i] = transform.getX();
+            posY[i] = transform.getY();
+            velX[i] = physics.getVelocityX();
+            velY[i] = physics.getVelocityY();
+            accX[i] = physics.getEffectiveAccelerationX();
+            accY[i] = physics.getEffectiveAccelerationY();
+            float f = physics.getFriction();
+            friction[i] = (steps > 1 && f > 0f && f < 1f) ? (float) Math.pow(f, 1.0 / steps) : f;
+            ColliderComponent collider = owner.getComponent(ColliderComponent.class);
+            if (collider != null && collider.isEnabled() && !collider.isTrigger() && !collider.isStatic()) {
+                boxOffsetX[i] = collider.getOffsetX();
+                boxOffsetY[i] = collider.getOffsetY();
+                boxWidth[i] = collider.getWidth();
+                boxHeight[i] = collider.getHeight();
+            } else {
+                boxWidth[i] = Float.NaN;
+            }
+        }
+    }
+    
+    private void scatter(int start, int end, float deltaTime) {
+        for (int i = start; i < end; i++) {
+            TransformComponent transform = transforms[i];
+            if (transform == null) continue;
+            transforms[i] = null;
+            PhysicsComponent physics = bodies[i];
+            transform.setPosition(posX[i], posY[i]);
+            physics.storeVelocity(velX[i], velY[i]);
+            physics.clearAcceleration();
+            physics.advanceSleepTimer(deltaTime);
         }
     }
     
     public void cleanup() {
+        stopPhysicsThread();
+        scene.getCollisionWorld().setExecutor(null);
         if (physicsExecutor != null && !physicsExecutor.isShutdown()) {
             physicsExecutor.shutdown();
             try {
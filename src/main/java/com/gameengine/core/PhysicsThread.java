@@ -0,0 +1,595 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.math.BatchKernels;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs body integration on a dedicated thread at a fixed rate, decoupled from the frame rate.
+ * <p>
+ * The physics thread owns a structure-of-arrays body store. After each batch of steps it publishes
+ * positions and velocities through a {@link TripleBuffer}, so the game thread never waits for it.
+ * In the other direction, {@link #sync} runs on the game thread once per frame. It diffs every body
+ * against the values it last saw (from a snapshot or a previous send), and anything gameplay changed
+ * since then (velocity from input or AI, solver corrections, forces, sleeping) is queued as a command
+ * for the physics thread. A body with a command still in flight ignores snapshots older than that
+ * command, so gameplay writes are never overwritten by stale results.
+ * <p>
+ * Bodies with a collider are stopped at static geometry like in {@link PhysicsSystem}, against an
+ * {@link ObstacleGrid} copy handed over with {@link #setObstacles}; collider boxes travel with the
+ * other body state.
+ */
+public class PhysicsThread {
+    private static final int CMD_STATE = 0;
+    private static final int CMD_REMOVE = 1;
+
+    private static final int SET_POSITION = 1;
+    private static final int SET_VELOCITY = 2;
+    private static final int SET_ACCELERATION = 4;
+    private static final int SET_FRICTION = 8;
+    private static final int SET_ACTIVE = 16;
+    private static final int SET_BOX = 32;
+
+    private static final int MAX_CATCH_UP_STEPS = 4;
+    // Friction is a per-frame factor tuned for 60 fps; steps at other rates use the matching power
+    private static final float FRICTION_REFERENCE_RATE = 60f;
+
+    private final int hz;
+    private final float stepTime;
+    private final double frictionExponent;
+    private final long stepNanos;
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+
+    // Shared between the two threads
+    private final TripleBuffer<Snapshot> snapshots = new TripleBuffer<>(Snapshot::new);
+    private final ConcurrentLinkedQueue<CommandBatch> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<CommandBatch> recycled = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+    private volatile ObstacleGrid obstacles;
+    private Thread thread;
+
+    // Owned by the physics thread
+    private float[] posX = new float[64];
+    private float[] posY = new float[64];
+    private float[] velX = new float[64];
+    private float[] velY = new float[64];
+    private float[] accX = new float[64];
+    private float[] accY = new float[64];
+    private float[] friction = new float[64];
+    // Collider box relative to the body position; NaN width means no box (or an inactive body)
+    private float[] boxOffsetX = new float[64];
+    private float[] boxOffsetY = new float[64];
+    private float[] boxWidth = new float[64];
+    private float[] boxHeight = new float[64];
+    private float[] stepStartX = new float[64];
+    private float[] stepStartY = new float[64];
+    private int[] generation = new int[64];
+    private int storeSize;
+    private long processedSequence;
+    private long stepCount;
+
+    // Owned by the game thread
+    private PhysicsComponent[] handleBody = new PhysicsComponent[64];
+    private TransformComponent[] handleTransform = new TransformComponent[64];
+    private int[] handleGeneration = new int[64];
+    private float[] lastX = new float[64];
+    private float[] lastY = new float[64];
+    private float[] lastVelX = new float[64];
+    private float[] lastVelY = new float[64];
+    private float[] lastAccX = new float[64];
+    private float[] lastAccY = new float[64];
+    private float[] lastFriction = new float[64];
+    private float[] lastBoxX = new float[64];
+    private float[] lastBoxY = new float[64];
+    private float[] lastBoxWidth = new float[64];
+    private float[] lastBoxHeight = new float[64];
+    private boolean[] lastActive = new boolean[64];
+    private long[] writeSequence = new long[64];
+    private int[] seenTick = new int[64];
+    private int handleCount;
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int tick;
+    private long sequence;
+    private int lastCommandCount;
+    private long lastAppliedStep;
+
+    /**
+     * @param hz fixed simulation rate
+     * @param minX lower bound of the play area, like the boundary used by {@link PhysicsSystem}
+     */
+    public PhysicsThread(int hz, float minX, float minY, float maxX, float maxY) {
+        if (hz <= 0) {
+            throw new IllegalArgumentException("hz must be positive: " + hz);
+        }
+        this.hz = hz;
+        this.stepTime = 1f / hz;
+        this.stepNanos = 1_000_000_000L / hz;
+        this.frictionExponent = FRICTION_REFERENCE_RATE / hz;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "physics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread and detaches every body; components keep the last state applied to them.
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        for (int h = 0; h < handleCount; h++) {
+            if (handleBody[h] != null && handleBody[h].getBodyHandle() == h) {
+                handleBody[h].setBodyHandle(-1);
+            }
+        }
+        Arrays.fill(handleBody, 0, handleCount, null);
+        Arrays.fill(handleTransform, 0, handleCount, null);
+        handleCount = 0;
+        freeCount = 0;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getHz() {
+        return hz;
+    }
+
+    /**
+     * Static geometry bodies are stopped at from the next step on, or null for none. The grid is read
+     * by the physics thread and must not be changed afterwards, so pass a copy.
+     */
+    public void setObstacles(ObstacleGrid grid) {
+        this.obstacles = grid;
+    }
+
+    // ------------------------------------------------------------------ game thread
+
+    /**
+     * Game thread, once per frame: sends what gameplay changed since the last sync, then applies the
+     * newest snapshot to the components.
+     *
+     * @return number of bodies the physics thread is simulating (awake and enabled)
+     */
+    public int sync(List<PhysicsComponent> bodies, float deltaTime) {
+        tick++;
+        CommandBatch batch = recycled.poll();
+        if (batch == null) {
+            batch = new CommandBatch();
+        }
+        long batchSequence = sequence + 1;
+
+        for (int i = 0; i < bodies.size(); i++) {
+            PhysicsComponent physics = bodies.get(i);
+            GameObject owner = physics.getOwner();
+            TransformComponent transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+            if (transform == null) continue;
+
+            int h = physics.getBodyHandle();
+            boolean registered = h >= 0 && h < handleCount && handleBody[h] == physics;
+            if (!registered) {
+                h = allocateHandle(physics, transform);
+            }
+            seenTick[h] = tick;
+
+            float x = transform.getX();
+            float y = transform.getY();
+            float vx = physics.getVelocityX();
+            float vy = physics.getVelocityY();
+            float ax = physics.getEffectiveAccelerationX();
+            float ay = physics.getEffectiveAccelerationY();
+            float f = physics.getFriction();
+            boolean active = physics.isEnabled() && !physics.isSleeping();
+            physics.clearAcceleration();
+            float boxX = 0f;
+            float boxY = 0f;
+            float boxW = Float.NaN;
+            float boxH = 0f;
+            ColliderComponent collider = owner.getComponent(ColliderComponent.class);
+            if (collider != null && collider.isEnabled() && !collider.isTrigger() && !collider.isStatic()) {
+                boxX = collider.getOffsetX();
+                boxY = collider.getOffsetY();
+                boxW = collider.getWidth();
+                boxH = collider.getHeight();
+            }
+
+            int flags = 0;
+            if (!registered || x != lastX[h] || y != lastY[h]) flags |= SET_POSITION;
+            if (!registered || vx != lastVelX[h] || vy != lastVelY[h]) flags |= SET_VELOCITY;
+            if (!registered || ax != lastAccX[h] || ay != lastAccY[h]) flags |= SET_ACCELERATION;
+            if (!registered || f != lastFriction[h]) flags |= SET_FRICTION;
+            // Deactivating drops the box on the physics thread, so reactivating sends it again
+            if (!registered || active != lastActive[h]) flags |= SET_ACTIVE | SET_BOX;
+            if (Float.compare(boxX, lastBoxX[h]) != 0 || Float.compare(boxY, lastBoxY[h]) != 0
+                || Float.compare(boxW, lastBoxWidth[h]) != 0 || Float.compare(boxH, lastBoxHeight[h]) != 0) {
+                flags |= SET_BOX;
+            }
+            if (flags == 0) continue;
+
+            batch.add(CMD_STATE, h, handleGeneration[h], flags, x, y, vx, vy, ax, ay, f, active);
+            batch.setBox(boxX, boxY, boxW, boxH);
+            lastX[h] = x;
+            lastY[h] = y;
+            lastVelX[h] = vx;
+            lastVelY[h] = vy;
+            lastAccX[h] = ax;
+            lastAccY[h] = ay;
+            lastFriction[h] = f;
+            lastBoxX[h] = boxX;
+            lastBoxY[h] = boxY;
+            lastBoxWidth[h] = boxW;
+            lastBoxHeight[h] = boxH;
+            lastActive[h] = active;
+            writeSequence[h] = batchSequence;
+        }
+
+        for (int h = 0; h < handleCount; h++) {
+            if (handleBody[h] != null && seenTick[h] != tick) {
+                batch.add(CMD_REMOVE, h, handleGeneration[h], 0, 0, 0, 0, 0, 0, 0, 0, false);
+                releaseHandle(h);
+            }
+        }
+
+        lastCommandCount = batch.size;
+        if (batch.size > 0) {
+            sequence = batchSequence;
+            batch.sequence = batchSequence;
+            pending.offer(batch);
+            LockSupport.unpark(thread);
+        } else {
+            recycled.offer(batch);
+        }
+
+        if (snapshots.acquire()) {
+            applySnapshot(snapshots.front());
+        }
+
+        int active = 0;
+        for (int h = 0; h < handleCount; h++) {
+            if (handleBody[h] != null && lastActive[h]) {
+                handleBody[h].advanceSleepTimer(deltaTime);
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private void applySnapshot(Snapshot snapshot) {
+        lastAppliedStep = snapshot.stepCount;
+        int count = Math.min(snapshot.count, handleCount);
+        for (int h = 0; h < count; h++) {
+            if (handleBody[h] == null || !lastActive[h]) continue;
+            if (snapshot.generation[h] != handleGeneration[h]) continue;
+            // A command for this body is still in flight; this snapshot predates it
+            if (writeSequence[h] > snapshot.processedSequence) continue;
+            float x = snapshot.posX[h];
+            float y = snapshot.posY[h];
+            float vx = snapshot.velX[h];
+            float vy = snapshot.velY[h];
+            handleTransform[h].setPosition(x, y);
+            handleBody[h].storeVelocity(vx, vy);
+            lastX[h] = x;
+            lastY[h] = y;
+            lastVelX[h] = vx;
+            lastVelY[h] = vy;
+        }
+    }
+
+    private int allocateHandle(PhysicsComponent physics, TransformComponent transform) {
+        int h;
+        if (freeCount > 0) {
+            h = freeHandles[--freeCount];
+        } else {
+            if (handleCount == handleBody.length) {
+                growHandles(handleCount * 2);
+            }
+            h = handleCount++;
+        }
+        handleGeneration[h]++;
+        handleBody[h] = physics;
+        handleTransform[h] = transform;
+        physics.setBodyHandle(h);
+        return h;
+    }
+
+    private void releaseHandle(int h) {
+        if (handleBody[h].getBodyHandle() == h) {
+            handleBody[h].setBodyHandle(-1);
+        }
+        handleBody[h] = null;
+        handleTransform[h] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = h;
+    }
+
+    private void growHandles(int capacity) {
+        handleBody = Arrays.copyOf(handleBody, capacity);
+        handleTransform = Arrays.copyOf(handleTransform, capacity);
+        handleGeneration = Arrays.copyOf(handleGeneration, capacity);
+        lastX = Arrays.copyOf(lastX, capacity);
+        lastY = Arrays.copyOf(lastY, capacity);
+        lastVelX = Arrays.copyOf(lastVelX, capacity);
+        lastVelY = Arrays.copyOf(lastVelY, capacity);
+        lastAccX = Arrays.copyOf(lastAccX, capacity);
+        lastAccY = Arrays.copyOf(lastAccY, capacity);
+        lastFriction = Arrays.copyOf(lastFriction, capacity);
+        lastBoxX = Arrays.copyOf(lastBoxX, capacity);
+        lastBoxY = Arrays.copyOf(lastBoxY, capacity);
+        lastBoxWidth = Arrays.copyOf(lastBoxWidth, capacity);
+        lastBoxHeight = Arrays.copyOf(lastBoxHeight, capacity);
+        lastActive = Arrays.copyOf(lastActive, capacity);
+        writeSequence = Arrays.copyOf(writeSequence, capacity);
+        seenTick = Arrays.copyOf(seenTick, capacity);
+    }
+
+    /**
+     * Commands sent by the last {@link #sync}.
+     */
+    public int getLastCommandCount() {
+        return lastCommandCount;
+    }
+
+    /**
+     * Physics step count of the newest snapshot applied so far.
+     */
+    public long getLastAppliedStep() {
+        return lastAppliedStep;
+    }
+
+    // ------------------------------------------------------------------ physics thread
+
+    private void run() {
+        long next = System.nanoTime();
+        while (running) {
+            drainCommands();
+            long now = System.nanoTime();
+            int steps = 0;
+            while (now - next >= 0 && steps < MAX_CATCH_UP_STEPS) {
+                step();
+                next += stepNanos;
+                steps++;
+            }
+            if (now - next >= 0) {
+                // Too far behind: drop the backlog rather than spiral
+                next = now + stepNanos;
+            }
+            if (steps > 0) {
+                publish();
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    private void drainCommands() {
+        CommandBatch batch;
+        while ((batch = pending.poll()) != null) {
+            for (int i = 0; i < batch.size; i++) {
+                applyCommand(batch, i);
+            }
+            processedSequence = batch.sequence;
+            batch.size = 0;
+            recycled.offer(batch);
+        }
+    }
+
+    private void applyCommand(CommandBatch batch, int i) {
+        int h = batch.handle[i];
+        if (batch.type[i] == CMD_REMOVE) {
+            if (h < storeSize && generation[h] == batch.generation[i]) {
+                generation[h] = -1;
+                posX[h] = posY[h] = velX[h] = velY[h] = accX[h] = accY[h] = friction[h] = 0;
+                boxWidth[h] = Float.NaN;
+            }
+            return;
+        }
+        if (h >= posX.length) {
+            growStore(Math.max(h + 1, posX.length * 2));
+        }
+        storeSize = Math.max(storeSize, h + 1);
+        generation[h] = batch.generation[i];
+        int flags = batch.flags[i];
+        if ((flags & SET_POSITION) != 0) {
+            posX[h] = batch.x[i];
+            posY[h] = batch.y[i];
+        }
+        if ((flags & SET_VELOCITY) != 0) {
+            velX[h] = batch.vx[i];
+            velY[h] = batch.vy[i];
+        }
+        if ((flags & SET_ACCELERATION) != 0) {
+            accX[h] = batch.ax[i];
+            accY[h] = batch.ay[i];
+        }
+        if ((flags & SET_FRICTION) != 0) {
+            float f = batch.friction[i];
+            friction[h] = (f > 0f && f < 1f) ? (float) Math.pow(f, frictionExponent) : f;
+        }
+        if ((flags & SET_BOX) != 0) {
+            boxOffsetX[h] = batch.boxX[i];
+            boxOffsetY[h] = batch.boxY[i];
+            boxWidth[h] = batch.boxWidth[i];
+            boxHeight[h] = batch.boxHeight[i];
+        }
+        if (!batch.active[i]) {
+            // Inactive bodies stay in the arrays at rest, so the kernels need no mask
+            velX[h] = velY[h] = accX[h] = accY[h] = 0;
+            boxWidth[h] = Float.NaN;
+        }
+    }
+
+    private void step() {
+        ObstacleGrid grid = obstacles;
+        boolean hasObstacles = grid != null && !grid.isEmpty();
+        if (hasObstacles) {
+            System.arraycopy(posX, 0, stepStartX, 0, storeSize);
+            System.arraycopy(posY, 0, stepStartY, 0, storeSize);
+        }
+        BatchKernels.integrate(posX, posY, velX, velY, accX, accY, friction, stepTime, 0, storeSize);
+        BatchKernels.clampAndReflect(posX, posY, velX, velY, minX, minY, maxX, maxY, 0, storeSize);
+        if (hasObstacles) {
+            grid.resolveMoves(stepStartX, stepStartY, posX, posY, velX, velY,
+                boxOffsetX, boxOffsetY, boxWidth, boxHeight, 0, storeSize);
+        }
+        stepCount++;
+    }
+
+    private void publish() {
+        Snapshot snapshot = snapshots.back();
+        snapshot.ensureCapacity(storeSize);
+        System.arraycopy(posX, 0, snapshot.posX, 0, storeSize);
+        System.arraycopy(posY, 0, snapshot.posY, 0, storeSize);
+        System.arraycopy(velX, 0, snapshot.velX, 0, storeSize);
+        System.arraycopy(velY, 0, snapshot.velY, 0, storeSize);
+        System.arraycopy(generation, 0, snapshot.generation, 0, storeSize);
+        snapshot.count = storeSize;
+        snapshot.processedSequence = processedSequence;
+        snapshot.stepCount = stepCount;
+        snapshots.publish();
+    }
+
+    private void growStore(int capacity) {
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        accX = Arrays.copyOf(accX, capacity);
+        accY = Arrays.copyOf(accY, capacity);
+        friction = Arrays.copyOf(friction, capacity);
+        boxOffsetX = Arrays.copyOf(boxOffsetX, capacity);
+        boxOffsetY = Arrays.copyOf(boxOffsetY, capacity);
+        stepStartX = Arrays.copyOf(stepStartX, capacity);
+        stepStartY = Arrays.copyOf(stepStartY, capacity);
+        boxHeight = Arrays.copyOf(boxHeight, capacity);
+        int old = generation.length;
+        boxWidth = Arrays.copyOf(boxWidth, capacity);
+        Arrays.fill(boxWidth, old, capacity, Float.NaN);
+        generation = Arrays.copyOf(generation, capacity);
+        Arrays.fill(generation, old, capacity, -1);
+    }
+
+    /**
+     * Published body state, indexed by body handle.
+     */
+    private static final class Snapshot {
+        float[] posX = new float[0];
+        float[] posY = new float[0];
+        float[] velX = new float[0];
+        float[] velY = new float[0];
+        int[] generation = new int[0];
+        int count;
+        long processedSequence;
+        long stepCount;
+
+        void ensureCapacity(int capacity) {
+            if (posX.length >= capacity) return;
+            int size = Math.max(capacity, posX.length * 2);
+            posX = new float[size];
+            posY = new float[size];
+            velX = new float[size];
+            velY = new float[size];
+            generation = new int[size];
+        }
+    }
+
+    /**
+     * One frame's commands, recycled between the two threads.
+     */
+    private static final class CommandBatch {
+        int[] type = new int[64];
+        int[] handle = new int[64];
+        int[] generation = new int[64];
+        int[] flags = new int[64];
+        float[] x = new float[64];
+        float[] y = new float[64];
+        float[] vx = new float[64];
+        float[] vy = new float[64];
+        float[] ax = new float[64];
+        float[] ay = new float[64];
+        float[] friction = new float[64];
+        float[] boxX = new float[64];
+        float[] boxY = new float[64];
+        float[] boxWidth = new float[64];
+        float[] boxHeight = new float[64];
+        boolean[] active = new boolean[64];
+        int size;
+        long sequence;
+
+        void add(int commandType, int h, int gen, int commandFlags, float px, float py, float pvx, float pvy,
+                 float pax, float pay, float f, boolean isActive) {
+            if (size == type.length) {
+                int capacity = size * 2;
+                type = Arrays.copyOf(type, capacity);
+                handle = Arrays.copyOf(handle, capacity);
+                generation = Arrays.copyOf(generation, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                vx = Arrays.copyOf(vx, capacity);
+                vy = Arrays.copyOf(vy, capacity);
+                ax = Arrays.copyOf(ax, capacity);
+                ay = Arrays.copyOf(ay, capacity);
+                friction = Arrays.copyOf(friction, capacity);
+                boxX = Arrays.copyOf(boxX, capacity);
+                boxY = Arrays.copyOf(boxY, capacity);
+                boxWidth = Arrays.copyOf(boxWidth, capacity);
+                boxHeight = Arrays.copyOf(boxHeight, capacity);
+                active = Arrays.copyOf(active, capacity);
+            }
+            type[size] = commandType;
+            handle[size] = h;
+            generation[size] = gen;
+            flags[size] = commandFlags;
+            x[size] = px;
+            y[size] = py;
+            vx[size] = pvx;
+            vy[size] = pvy;
+            ax[size] = pax;
+            ay[size] = pay;
+            friction[size] = f;
+            active[size] = isActive;
+            size++;
+        }
+
+        /**
+         * Collider box of the command added last.
+         */
+        void setBox(float x, float y, float width, float height) {
+            boxX[size - 1] = x;
+            boxY[size - 1] = y;
+            boxWidth[size - 1] = width;
+            boxHeight[size - 1] = height;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.gameengine.core;
+
+import com.gameengine.math.CollisionUtils;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase. Every proxy is bucketed into each cell its box touches; the hashed
+ * grid is rebuilt lazily after proxies move, so pair generation is roughly linear in proxy count
+ * as long as the cell size is close to the typical object size. Proxies covering more than
+ * {@link #MAX_PROXY_CELLS} cells (huge triggers, level-sized volumes) are kept out of the grid in
+ * an oversized list that is tested against every query and every other proxy instead.
+ */
+public class SpatialHashBroadphase implements Broadphase {
+    public static final int MAX_PROXY_CELLS = 64;
+    // Cell coordinates are clamped to this range so cell loops can never overflow
+    private static final int CELL_LIMIT = 1 << 29;
+
+    private final float cellSize;
+    private final float inverseCellSize;
+
+    // Proxy storage (structure of arrays, slots recycled through a free list)
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private int[] userIds = new int[64];
+    private boolean[] alive = new boolean[64];
+    private int[] queryStamp = new int[64];
+    private boolean[] oversized = new boolean[64];
+    private int proxyCapacityUsed;
+    private int proxyCount;
+    private int[] freeProxies = new int[16];
+    private int freeCount;
+
+    // Hashed grid: bucket heads plus singly linked cell entries
+    private int[] buckets = new int[0];
+    private int[] entryProxy = new int[256];
+    private int[] entryCellX = new int[256];
+    private int[] entryCellY = new int[256];
+    private int[] entryNext = new int[256];
+    private int entryCount;
+    private int[] oversizedProxies = new int[16];
+    private int oversizedCount;
+    // Cell range holding at least one entry, so queries never walk cells outside it
+    private int occupiedMinX;
+    private int occupiedMinY;
+    private int occupiedMaxX = -1;
+    private int occupiedMaxY = -1;
+    private boolean dirty = true;
+    private int stamp;
+    private PairFilter filter;
+
+    public SpatialHashBroadphase() {
+        this(64f);
+    }
+
+    public SpatialHashBroadphase(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public int createProxy(float left, float top, float right, float bottom, int userId) {
+        int id;
+        if (freeCount > 0) {
+            id = freeProxies[--freeCount];
+        } else {
+            if (proxyCapacityUsed == alive.length) {
+                growProxies(alive.length * 2);
+            }
+            id = proxyCapacityUsed++;
+        }
+        minX[id] = left;
+        minY[id] = top;
+        maxX[id] = right;
+        maxY[id] = bottom;
+        userIds[id] = userId;
+        alive[id] = true;
+        proxyCount++;
+        dirty = true;
+        return id;
+    }
+
+    @Override
+    public void moveProxy(int proxyId, float left, float top, float right, float bottom) {
+        minX[proxyId] = left;
+        minY[proxyId] = top;
+        maxX[proxyId] = right;
+        maxY[proxyId] = bottom;
+        dirty = true;
+    }
+
+    @Override
+    public void destroyProxy(int proxyId) {
+        if (!alive[proxyId]) return;
+        alive[proxyId] = false;
+        if (freeCount == freeProxies.length) {
+            freeProxies = Arrays.copyOf(freeProxies, freeCount * 2);
+        }
+        freeProxies[freeCount++] = proxyId;
+        proxyCount--;
+        dirty = true;
+    }
+
+    @Override
+    public void computePairs(PairBuffer pairs) {
+        pairs.clear();
+        rebuildIfDirty();
+        for (int e = 0; e < entryCount; e++) {
+            int p = entryProxy[e];
+            int cx = entryCellX[e];
+            int cy = entryCellY[e];
+            // Entries are pushed at the bucket head, so following next visits each earlier entry exactly once
+            for (int o = entryNext[e]; o >= 0; o = entryNext[o]) {
+                if (entryCellX[o] != cx || entryCellY[o] != cy) continue;
+                int q = entryProxy[o];
+                if (!overlaps(p, q)) continue;
+                // Report the pair only from the cell holding the corner where the two boxes start overlapping
+                if (cell(Math.max(minX[p], minX[q])) != cx || cell(Math.max(minY[p], minY[q])) != cy) continue;
+                if (filter != null && !filter.shouldCollide(userIds[p], userIds[q])) continue;
+                pairs.add(userIds[p], userIds[q]);
+            }
+        }
+        for (int i = 0; i < oversizedCount; i++) {
+            int p = oversizedProxies[i];
+            for (int q = 0; q < proxyCapacityUsed; q++) {
+                // Two oversized proxies are paired once, from the later one's point of view
+                if (!alive[q] || q == p || (oversized[q] && q > p)) continue;
+                if (!overlaps(p, q)) continue;
+                if (filter != null && !filter.shouldCollide(userIds[p], userIds[q])) continue;
+                pairs.add(userIds[p], userIds[q]);
+            }
+        }
+    }
+
+    @Override
+    public int queryAabb(float left, float top, float right, float bottom, int[] out) {
+        rebuildIfDirty();
+        if (out.length == 0) return 0;
+        int mark = nextStamp();
+        int count = 0;
+        for (int i = 0; i < oversizedCount; i++) {
+            int p = oversizedProxies[i];
+            queryStamp[p] = mark;
+            if (left < maxX[p] && right > minX[p] && top < maxY[p] && bottom > minY[p]) {
+                out[count++] = userIds[p];
+                if (count == out.length) return count;
+            }
+        }
+        int x0 = Math.max(cell(left), occupiedMinX);
+        int x1 = Math.min(cell(right), occupiedMaxX);
+        int y0 = Math.max(cell(top), occupiedMinY);
+        int y1 = Math.min(cell(bottom), occupiedMaxY);
+        if (x0 > x1 || y0 > y1) return count;
+        if (((long) x1 - x0 + 1) * ((long) y1 - y0 + 1) > entryCount) {
+            // The box spans more cells than there are entries: scanning the entries is cheaper
+            for (int e = 0; e < entryCount; e++) {
+                int p = entryProxy[e];
+                if (queryStamp[p] == mark) continue;
+                queryStamp[p] = mark;
+                if (left < maxX[p] && right > minX[p] && top < maxY[p] && bottom > minY[p]) {
+                    out[count++] = userIds[p];
+                    if (count == out.length) return count;
+                }
+            }
+            return count;
+        }
+        int mask = buckets.length - 1;
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int e = buckets[hash(cx, cy) & mask]; e >= 0; e = entryNext[e]) {
+                    if (entryCellX[e] != cx || entryCellY[e] != cy) continue;
+                    int p = entryProxy[e];
+                    if (queryStamp[p] == mark) continue;
+                    queryStamp[p] = mark;
+                    if (left < maxX[p] && right > minX[p] && top < maxY[p] && bottom > minY[p]) {
+                        out[count++] = userIds[p];
+                        if (count == out.length) return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Walks the grid cells along the segment (Amanatides-Woo traversal) and tests the proxies bucketed there.
+     * The walk is clipped to the occupied cells; segments crossing more cells than there are entries,
+     * or with non-finite coordinates, scan the entries instead.
+     */
+    @Override
+    public int raycast(float x0, float y0, float x1, float y1, int[] out) {
+        rebuildIfDirty();
+        if (out.length == 0) return 0;
+        int mark = nextStamp();
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int count = 0;
+        for (int i = 0; i < oversizedCount; i++) {
+            int p = oversizedProxies[i];
+            queryStamp[p] = mark;
+            if (CollisionUtils.sweptCircleAabb(x0, y0, dx, dy, 0f, minX[p], minY[p], maxX[p], maxY[p]) >= 0f) {
+                out[count++] = userIds[p];
+                if (count == out.length) return count;
+            }
+        }
+        if (entryCount == 0) return count;
+
+        // Clip the segment to the occupied cells, so the walk never leaves them
+        double tEnter = 0.0;
+        double tExit = 1.0;
+        boolean finite = Float.isFinite(x0) && Float.isFinite(y0) && Float.isFinite(dx) && Float.isFinite(dy);
+        if (finite) {
+            double boxMinX = (double) occupiedMinX * cellSize;
+            double boxMaxX = (occupiedMaxX + 1.0) * cellSize;
+            double boxMinY = (double) occupiedMinY * cellSize;
+            double boxMaxY = (occupiedMaxY + 1.0) * cellSize;
+            if (dx == 0f) {
+                if (x0 < boxMinX || x0 > boxMaxX) return count;
+            } else {
+                double t1 = (boxMinX - x0) / dx;
+                double t2 = (boxMaxX - x0) / dx;
+                tEnter = Math.max(tEnter, Math.min(t1, t2));
+                tExit = Math.min(tExit, Math.max(t1, t2));
+            }
+            if (dy == 0f) {
+                if (y0 < boxMinY || y0 > boxMaxY) return count;
+            } else {
+                double t1 = (boxMinY - y0) / dy;
+                double t2 = (boxMaxY - y0) / dy;
+                tEnter = Math.max(tEnter, Math.min(t1, t2));
+                tExit = Math.min(tExit, Math.max(t1, t2));
+            }
+            if (tEnter > tExit) return count;
+        }
+        double startX = x0 + tEnter * dx;
+        double startY = y0 + tEnter * dy;
+        double walkX = (tExit - tEnter) * dx;
+        double walkY = (tExit - tEnter) * dy;
+        int cx = cell((float) startX);
+        int cy = cell((float) startY);
+        long steps = finite
+            ? Math.abs((long) cell((float) (startX + walkX)) - cx) + Math.abs((long) cell((float) (startY + walkY)) - cy)
+            : Long.MAX_VALUE;
+
+        if (steps >= entryCount) {
+            // The segment crosses more cells than there are entries: scanning the entries is cheaper
+            for (int e = 0; e < entryCount; e++) {
+                int p = entryProxy[e];
+                if (queryStamp[p] == mark) continue;
+                queryStamp[p] = mark;
+                if (CollisionUtils.sweptCircleAabb(x0, y0, dx, dy, 0f, minX[p], minY[p], maxX[p], maxY[p]) >= 0f) {
+                    out[count++] = userIds[p];
+                    if (count == out.length) return count;
+                }
+            }
+            return count;
+        }
+
+        int stepX = walkX > 0 ? 1 : -1;
+        int stepY = walkY > 0 ? 1 : -1;
+        double tDeltaX = walkX != 0 ? Math.abs(cellSize / walkX) : Double.POSITIVE_INFINITY;
+        double tDeltaY = walkY != 0 ? Math.abs(cellSize / walkY) : Double.POSITIVE_INFINITY;
+        double tMaxX = walkX != 0 ? ((walkX > 0 ? cx + 1 : cx) * (double) cellSize - startX) / walkX : Double.POSITIVE_INFINITY;
+        double tMaxY = walkY != 0 ? ((walkY > 0 ? cy + 1 : cy) * (double) cellSize - startY) / walkY : Double.POSITIVE_INFINITY;
+
+        int mask = buckets.length - 1;
+        for (long i = 0; ; i++) {
+            for (int e = buckets[hash(cx, cy) & mask]; e >= 0; e = entryNext[e]) {
+                if (entryCellX[e] != cx || entryCellY[e] != cy) continue;
+                int p = entryProxy[e];
+                if (queryStamp[p] == mark) continue;
+                queryStamp[p] = mark;
+                if (CollisionUtils.sweptCircleAabb(x0, y0, dx, dy, 0f, minX[p], minY[p], maxX[p], maxY[p]) >= 0f) {
+                    out[count++] = userIds[p];
+                    if (count == out.length) return count;
+                }
+            }
+            if (i == steps) break;
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void setPairFilter(PairFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(alive, false);
+        proxyCapacityUsed = 0;
+        proxyCount = 0;
+        freeCount = 0;
+        entryCount = 0;
+        oversizedCount = 0;
+        dirty = true;
+    }
+
+    private void rebuildIfDirty() {
+        if (!dirty) return;
+        dirty = false;
+        entryCount = 0;
+        oversizedCount = 0;
+
+        int tableSize = Integer.highestOneBit(Math.max(16, proxyCount * 4) - 1) << 1;
+        if (buckets.length != tableSize) {
+            buckets = new int[tableSize];
+        }
+        Arrays.fill(buckets, -1);
+        int mask = tableSize - 1;
+        occupiedMinX = Integer.MAX_VALUE;
+        occupiedMinY = Integer.MAX_VALUE;
+        occupiedMaxX = Integer.MIN_VALUE;
+        occupiedMaxY = Integer.MIN_VALUE;
+
+        for (int p = 0; p < proxyCapacityUsed; p++) {
+            if (!alive[p]) continue;
+            int x0 = cell(minX[p]);
+            int x1 = cell(maxX[p]);
+            int y0 = cell(minY[p]);
+            int y1 = cell(maxY[p]);
+            oversized[p] = ((long) x1 - x0 + 1) * ((long) y1 - y0 + 1) > MAX_PROXY_CELLS;
+            if (oversized[p]) {
+                if (oversizedCount == oversizedProxies.length) {
+                    oversizedProxies = Arrays.copyOf(oversizedProxies, oversizedCount * 2);
+                }
+                oversizedProxies[oversizedCount++] = p;
+                continue;
+            }
+            occupiedMinX = Math.min(occupiedMinX, x0);
+            occupiedMinY = Math.min(occupiedMinY, y0);
+            occupiedMaxX = Math.max(occupiedMaxX, x1);
+            occupiedMaxY = Math.max(occupiedMaxY, y1);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    if (entryCount == entryProxy.length) {
+                        growEntries(entryCount * 2);
+                    }
+                    int bucket = hash(cx, cy) & mask;
+                    entryProxy[entryCount] = p;
+                    entryCellX[entryCount] = cx;
+                    entryCellY[entryCount] = cy;
+                    entryNext[entryCount] = buckets[bucket];
+                    buckets[bucket] = entryCount;
+                    entryCount++;
+                }
+            }
+        }
+    }
+
+    private boolean overlaps(int p, int q) {
+        return minX[p] < maxX[q] && maxX[p] > minX[q] && minY[p] < maxY[q] && maxY[p] > minY[q];
+    }
+
+    private int cell(float coordinate) {
+        double cell = Math.floor(coordinate * (double) inverseCellSize);
+        return (int) Math.max(-CELL_LIMIT, Math.min(CELL_LIMIT, cell));
+    }
+
+    private static int hash(int cx, int cy) {
+        return (cx * 73856093) ^ (cy * 19349663);
+    }
+
+    private int nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(queryStamp, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    private void growProxies(int capacity) {
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        queryStamp = Arrays.copyOf(queryStamp, capacity);
+        oversized = Arrays.copyOf(oversized, capacity);
+    }
+
+    private void growEntries(int capacity) {
+        entryProxy = Arrays.copyOf(entryProxy, capacity);
+        entryCellX = Arrays.copyOf(entryCellX, capacity);
+        entryCellY = Arrays.copyOf(entryCellY, capacity);
+        entryNext = Arrays.copyOf(entryNext, capacity);
+    }
+}
@@ -0,0 +1,215 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.math.CollisionUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * "What is near me" queries against a {@link CollisionWorld}, answered through its broadphase.
+ * Results are collider slots (see {@link CollisionWorld#getCollider(int)}) written into caller
+ * buffers; the queries themselves allocate nothing once the internal candidate buffer has grown
+ * to the typical result size. Only colliders whose layer bit is in {@code layerMask} are reported
+ * (pass {@link CollisionLayers#ALL} for everything). Shapes are tested exactly against the bounds
+ * of the last collision world update.
+ * <p>
+ * Solid static colliders (level geometry) are kept out of the broadphase and have no slot, so the
+ * slot queries never report them. Use {@link #raycastStatic} for line of sight against them.
+ */
+public class SpatialQuery {
+    private static final float NEAREST_START_RADIUS = 64f;
+
+    private final CollisionWorld world;
+    private int[] candidates = new int[64];
+
+    public SpatialQuery(CollisionWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Colliders overlapping the box, sorted by slot.
+     *
+     * @return number of slots written (at most {@code out.length})
+     */
+    public int overlapBox(float minX, float minY, float maxX, float maxY, int layerMask, int[] out) {
+        int candidateCount = gatherBox(minX, minY, maxX, maxY);
+        int count = 0;
+        for (int i = 0; i < candidateCount && count < out.length; i++) {
+            ColliderComponent collider = accept(candidates[i], layerMask);
+            if (collider == null) continue;
+            if (collider.getMinX() < maxX && collider.getMaxX() > minX
+                && collider.getMinY() < maxY && collider.getMaxY() > minY) {
+                out[count++] = candidates[i];
+            }
+        }
+        Arrays.sort(out, 0, count);
+        return count;
+    }
+
+    /**
+     * Colliders overlapping the circle, sorted by slot.
+     *
+     * @return number of slots written (at most {@code out.length})
+     */
+    public int overlapCircle(float centerX, float centerY, float radius, int layerMask, int[] out) {
+        int candidateCount = gatherBox(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+        int count = 0;
+        for (int i = 0; i < candidateCount && count < out.length; i++) {
+            ColliderComponent collider = accept(candidates[i], layerMask);
+            if (collider == null) continue;
+            if (distance(collider, centerX, centerY) < radius) {
+                out[count++] = candidates[i];
+            }
+        }
+        Arrays.sort(out, 0, count);
+        return count;
+    }
+
+    /**
+     * Colliders hit by the segment from (x0, y0) to (x1, y1), nearest first. With buffers of length
+     * one this is a closest-hit raycast.
+     *
+     * @param outFractions hit position along the segment in [0, 1], parallel to {@code outSlots}
+     * @return number of hits written (at most {@code outSlots.length})
+     */
+    public int raycast(float x0, float y0, float x1, float y1, int layerMask, int[] outSlots, float[] outFractions) {
+        int capacity = Math.min(outSlots.length, outFractions.length);
+        if (capacity == 0) return 0;
+        int candidateCount;
+        while ((candidateCount = world.getBroadphase().raycast(x0, y0, x1, y1, candidates)) == candidates.length) {
+            candidates = new int[candidates.length * 2];
+        }
+
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int count = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            ColliderComponent collider = accept(candidates[i], layerMask);
+            if (collider == null) continue;
+            float fraction = segmentFraction(collider, x0, y0, dx, dy);
+            if (fraction >= 0f) {
+                count = insertSorted(candidates[i], fraction, outSlots, outFractions, count, capacity);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fraction along the segment from (x0, y0) to (x1, y1) where it first hits a solid static
+     * collider on a layer in {@code layerMask}, or -1 if it hits none, e.g. to test line of sight
+     * through walls. Linear in the number of static colliders.
+     */
+    public float raycastStatic(float x0, float y0, float x1, float y1, int layerMask) {
+        List<ColliderComponent> statics = world.getStaticColliders();
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float nearest = -1f;
+        for (int i = 0; i < statics.size(); i++) {
+            ColliderComponent collider = statics.get(i);
+            if ((CollisionLayers.bit(collider.getLayer()) & layerMask) == 0) continue;
+            float fraction = segmentFraction(collider, x0, y0, dx, dy);
+            if (fraction >= 0f && (nearest < 0f || fraction < nearest)) {
+                nearest = fraction;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * The colliders closest to a point (distance to the shape, 0 when inside), nearest first, where
+     * k is the length of the output buffers. The search box starts small and doubles until k colliders
+     * are found within it, {@code maxDistance} is reached or the box already holds every proxy of the
+     * broadphase, so the cost follows local density rather than world size and an unbounded
+     * {@code maxDistance} still ends.
+     *
+     * @param outDistances distance of each result, parallel to {@code outSlots}
+     * @return number of results written (at most k)
+     */
+    public int nearestK(float x, float y, float maxDistance, int layerMask, int[] outSlots, float[] outDistances) {
+        int k = Math.min(outSlots.length, outDistances.length);
+        if (k == 0 || !(maxDistance >= 0f)) return 0;
+        float radius = Math.min(NEAREST_START_RADIUS, maxDistance);
+        while (true) {
+            int candidateCount = gatherBox(x - radius, y - radius, x + radius, y + radius);
+            int count = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                ColliderComponent collider = accept(candidates[i], layerMask);
+                if (collider == null) continue;
+                float distance = distance(collider, x, y);
+                if (distance <= maxDistance) {
+                    count = insertSorted(candidates[i], distance, outSlots, outDistances, count, k);
+                }
+            }
+            // Anything outside the box is farther than its half size, so the result is final once
+            // the k-th distance fits inside it
+            if ((count == k && outDistances[k - 1] <= radius) || radius >= maxDistance) {
+                return count;
+            }
+            // A bigger box cannot find anything new once every proxy is already a candidate
+            if (candidateCount >= world.getBroadphase().getProxyCount()) {
+                return count;
+            }
+            radius = Math.min(radius * 2f, maxDistance);
+        }
+    }
+
+    private int gatherBox(float minX, float minY, float maxX, float maxY) {
+        int count;
+        while ((count = world.queryAabb(minX, minY, maxX, maxY, candidates)) == candidates.length) {
+            candidates = new int[candidates.length * 2];
+        }
+        return count;
+    }
+
+    private ColliderComponent accept(int slot, int layerMask) {
+        ColliderComponent collider = world.getCollider(slot);
+        if (collider == null || (CollisionLayers.bit(collider.getLayer()) & layerMask) == 0) {
+            return null;
+        }
+        return collider;
+    }
+
+    private static float segmentFraction(ColliderComponent collider, float x0, float y0, float dx, float dy) {
+        if (collider.getShape() == ColliderComponent.Shape.CIRCLE) {
+            return CollisionUtils.segmentCircle(x0, y0, dx, dy,
+                collider.getCenterX(), collider.getCenterY(), collider.getRadius());
+        }
+        return CollisionUtils.sweptCircleAabb(x0, y0, dx, dy, 0f,
+            collider.getMinX(), collider.getMinY(), collider.getMaxX(), collider.getMaxY());
+    }
+
+    private static float distance(ColliderComponent collider, float x, float y) {
+        if (collider.getShape() == ColliderComponent.Shape.CIRCLE) {
+            float dx = x - collider.getCenterX();
+            float dy = y - collider.getCenterY();
+            return Math.max(0f, (float) Math.sqrt(dx * dx + dy * dy) - collider.getRadius());
+        }
+        float dx = Math.max(0f, Math.max(collider.getMinX() - x, x - collider.getMaxX()));
+        float dy = Math.max(0f, Math.max(collider.getMinY() - y, y - collider.getMaxY()));
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Inserts into a bounded list kept sorted by key (ties by slot), dropping the largest entry when full.
+     */
+    private static int insertSorted(int slot, float key, int[] slots, float[] keys, int count, int capacity) {
+        int i = count;
+        if (count == capacity) {
+            if (key > keys[capacity - 1] || (key == keys[capacity - 1] && slot > slots[capacity - 1])) {
+                return count;
+            }
+            i = capacity - 1;
+        } else {
+            count++;
+        }
+        while (i > 0 && (keys[i - 1] > key || (keys[i - 1] == key && slots[i - 1] > slot))) {
+            slots[i] = slots[i - 1];
+            keys[i] = keys[i - 1];
+            i--;
+        }
+        slots[i] = slot;
+        keys[i] = key;
+        return count;
+    }
+}
@@ -0,0 +1,379 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.SteeringComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.scene.Scene;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Moves every {@link SteeringComponent} agent of a scene in one batch: seek (along a
+ * {@link FlowField} when one is set, else straight at the target), arrival, separation and
+ * cohesion, blended into a velocity written to the agent's {@link PhysicsComponent}.
+ * <p>
+ * Agent state is gathered into flat arrays and bucketed into a spatial hash rebuilt each tick by
+ * counting sort, with cells as large as the widest neighbor radius, so each agent only looks at the
+ * 3x3 cells around it. The hash is read-only while agents are steered, so the agents are split into
+ * parallel chunks sized by {@link AdaptiveGranularity}; each agent writes only its own output slot,
+ * which keeps the result independent of scheduling.
+ */
+public class SteeringSystem {
+    private static final float SLOW_DOWN = 0.8f;
+    // Neighbors an agent reacts to at most, which bounds the cost inside tightly packed crowds
+    private static final int MAX_NEIGHBORS = 32;
+
+    private final ExecutorService executor;
+    private final AdaptiveGranularity granularity;
+    private FlowField flowField;
+    private boolean hasTarget;
+    private float targetX;
+    private float targetY;
+
+    // Agent state (structure of arrays, reused across ticks)
+    private PhysicsComponent[] bodies = new PhysicsComponent[0];
+    private float[] posX = new float[0];
+    private float[] posY = new float[0];
+    private float[] velX = new float[0];
+    private float[] velY = new float[0];
+    private float[] maxSpeed = new float[0];
+    private float[] arrivalRadius = new float[0];
+    private float[] separationRadius = new float[0];
+    private float[] separationWeight = new float[0];
+    private float[] cohesionRadius = new float[0];
+    private float[] cohesionWeight = new float[0];
+    private float[] outVelX = new float[0];
+    private float[] outVelY = new float[0];
+    private int agentCount;
+
+    // Spatial hash: agents sorted by bucket, bucketStart[b]..bucketStart[b + 1] indexes into sortedAgents
+    private int[] agentBucket = new int[0];
+    private int[] sortedAgents = new int[0];
+    private int[] bucketStart = new int[1];
+    private int bucketMask;
+    private float inverseCellSize;
+
+    private Future<?>[] futures = new Future<?>[0];
+    private long[] taskNanos = new long[0];
+    // Per-task buckets visited for the current agent; neighboring cells can hash to the same one
+    private int[][] visitedBuckets = { new int[9] };
+
+    /**
+     * @param executor workers for the steering pass, or null to run it on the calling thread
+     */
+    public SteeringSystem(ExecutorService executor) {
+        this.executor = executor;
+        int parallelism = executor != null ? Runtime.getRuntime().availableProcessors() : 1;
+        this.granularity = new AdaptiveGranularity(parallelism);
+    }
+
+    /**
+     * Target every agent seeks.
+     */
+    public void setTarget(float x, float y) {
+        this.targetX = x;
+        this.targetY = y;
+        this.hasTarget = true;
+    }
+
+    /**
+     * Without a target agents only keep apart from each other and slow down.
+     */
+    public void clearTarget() {
+        this.hasTarget = false;
+    }
+
+    public boolean hasTarget() {
+        return hasTarget;
+    }
+
+    /**
+     * Path field towards the target; agents follow it instead of the straight line while they are
+     * more than one cell away. Null seeks in a straight line.
+     */
+    public void setFlowField(FlowField flowField) {
+        this.flowField = flowField;
+    }
+
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    public void update(Scene scene) {
+        gather(scene.getComponents(SteeringComponent.class));
+        if (agentCount == 0) {
+            granularity.record(0, 0, 0L, 0L);
+            return;
+        }
+        buildHash();
+
+        int tasks = granularity.plan(agentCount);
+        long startNanos = System.nanoTime();
+        long workNanos = 0L;
+        if (tasks <= 1 || executor == null || executor.isShutdown()) {
+            tasks = 1;
+            steerRange(0, agentCount, visitedBuckets[0]);
+            workNanos = System.nanoTime() - startNanos;
+        } else {
+            if (futures.length < tasks) {
+                futures = new Future<?>[tasks];
+                taskNanos = new long[tasks];
+                visitedBuckets = new int[tasks][9];
+            }
+            int batchSize = (agentCount + tasks - 1) / tasks;
+            int submitted = 0;
+            for (int i = 0; i < agentCount; i += batchSize) {
+                final int start = i;
+                final int end = Math.min(i + batchSize, agentCount);
+                final int task = submitted++;
+                futures[task] = executor.submit(() -> {
+                    long taskStart = System.nanoTime();
+                    steerRange(start, end, visitedBuckets[task]);
+                    taskNanos[task] = System.nanoTime() - taskStart;
+                });
+            }
+            for (int task = 0; task < submitted; task++) {
+                try {
+                    futures[task].get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                futures[task] = null;
+                workNanos += taskNanos[task];
+            }
+            tasks = submitted;
+        }
+        granularity.record(agentCount, tasks, System.nanoTime() - startNanos, workNanos);
+
+        for (int i = 0; i < agentCount; i++) {
+            bodies[i].setVelocity(outVelX[i], outVelY[i]);
+        }
+        Arrays.fill(bodies, 0, agentCount, null);
+    }
+
+    /**
+     * Copies enabled agents with a transform and enabled physics into the arrays. The agent position
+     * is the center of its collider when it has one, else the transform position.
+     */
+    private void gather(List<SteeringComponent> agents) {
+        ensureCapacity(agents.size());
+        int count = 0;
+        for (int i = 0; i < agents.size(); i++) {
+            SteeringComponent steering = agents.get(i);
+            GameObject owner = steering.getOwner();
+            if (!steering.isEnabled() || owner == null || !owner.isActive()) continue;
+            TransformComponent transform = owner.getComponent(TransformComponent.class);
+            PhysicsComponent physics = owner.getComponent(PhysicsComponent.class);
+            if (transform == null || physics == null || !physics.isEnabled()) continue;
+
+            float x = transform.getX();
+            float y = transform.getY();
+            ColliderComponent collider = owner.getComponent(ColliderComponent.class);
+            if (collider != null) {
+                x += collider.getOffsetX() + collider.getWidth() * 0.5f;
+                y += collider.getOffsetY() + collider.getHeight() * 0.5f;
+            }
+            bodies[count] = physics;
+            posX[count] = x;
+            posY[count] = y;
+            velX[count] = physics.getVelocityX();
+            velY[count] = physics.getVelocityY();
+            maxSpeed[count] = steering.getMaxSpeed();
+            arrivalRadius[count] = steering.getArrivalRadius();
+            separationRadius[count] = steering.getSeparationRadius();
+            separationWeight[count] = steering.getSeparationWeight();
+            cohesionRadius[count] = steering.getCohesionRadius();
+            cohesionWeight[count] = steering.getCohesionWeight();
+            count++;
+        }
+        agentCount = count;
+    }
+
+    private void buildHash() {
+        float cellSize = 1f;
+        for (int i = 0; i < agentCount; i++) {
+            cellSize = Math.max(cellSize, Math.max(separationRadius[i], cohesionWeight[i] != 0f ? cohesionRadius[i] : 0f));
+        }
+        inverseCellSize = 1f / cellSize;
+
+        int buckets = Integer.highestOneBit(Math.max(16, agentCount * 2) - 1) << 1;
+        if (bucketStart.length < buckets + 1) {
+            bucketStart = new int[buckets + 1];
+        }
+        bucketMask = buckets - 1;
+        Arrays.fill(bucketStart, 0, buckets + 1, 0);
+        for (int i = 0; i < agentCount; i++) {
+            int bucket = bucketOf(cell(posX[i]), cell(posY[i]));
+            agentBucket[i] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        // Agents in index order within each bucket, so neighbor sums are summed in a fixed order
+        for (int i = 0; i < agentCount; i++) {
+            sortedAgents[bucketStart[agentBucket[i]]++] = i;
+        }
+        for (int b = buckets; b > 0; b--) {
+            bucketStart[b] = bucketStart[b - 1];
+        }
+        bucketStart[0] = 0;
+    }
+
+    private void steerRange(int start, int end, int[] visited) {
+        for (int i = start; i < end; i++) {
+            float x = posX[i];
+            float y = posY[i];
+            float separationRadiusSq = separationRadius[i] * separationRadius[i];
+            float cohesionRadiusSq = cohesionWeight[i] != 0f ? cohesionRadius[i] * cohesionRadius[i] : 0f;
+            float separateX = 0f;
+            float separateY = 0f;
+            float centerX = 0f;
+            float centerY = 0f;
+            int neighbors = 0;
+            int seen = 0;
+
+            int cellX = cell(x);
+            int cellY = cell(y);
+            int visitedCount = 0;
+            for (int cy = cellY - 1; cy <= cellY + 1 && seen < MAX_NEIGHBORS; cy++) {
+                for (int cx = cellX - 1; cx <= cellX + 1 && seen < MAX_NEIGHBORS; cx++) {
+                    int bucket = bucketOf(cx, cy);
+                    if (contains(visited, visitedCount, bucket)) continue;
+                    visited[visitedCount++] = bucket;
+                    for (int k = bucketStart[bucket]; k < bucketStart[bucket + 1] && seen < MAX_NEIGHBORS; k++) {
+                        int j = sortedAgents[k];
+                        if (j == i) continue;
+                        float dx = x - posX[j];
+                        float dy = y - posY[j];
+                        float distSq = dx * dx + dy * dy;
+                        if (distSq < separationRadiusSq || distSq < cohesionRadiusSq) {
+                            seen++;
+                        }
+                        if (distSq < separationRadiusSq) {
+                            float dist = (float) Math.sqrt(distSq);
+                            if (dist > 0f) {
+                                float strength = 1f - dist / separationRadius[i];
+                                separateX += dx / dist * strength;
+                                separateY += dy / dist * strength;
+                            } else {
+                                // Exactly stacked: split them along x by index
+                                separateX += i < j ? -1f : 1f;
+                            }
+                        }
+                        if (distSq < cohesionRadiusSq) {
+                            centerX += posX[j];
+                            centerY += posY[j];
+                            neighbors++;
+                        }
+                    }
+                }
+            }
+
+            float speed = maxSpeed[i];
+            float desiredX;
+            float desiredY;
+            if (hasTarget) {
+                float toTargetX = targetX - x;
+                float toTargetY = targetY - y;
+                float distance = (float) Math.sqrt(toTargetX * toTargetX + toTargetY * toTargetY);
+                float seekX = 0f;
+                float seekY = 0f;
+                if (flowField != null && flowField.getDistance(x, y) > 1) {
+                    seekX = flowField.sampleX(x, y);
+                    seekY = flowField.sampleY(x, y);
+                }
+                if (seekX == 0f && seekY == 0f && distance > 1e-3f) {
+                    seekX = toTargetX / distance;
+                    seekY = toTargetY / distance;
+                }
+                float seekSpeed = speed;
+                if (distance < arrivalRadius[i]) {
+                    seekSpeed *= distance / arrivalRadius[i];
+                }
+                desiredX = seekX * seekSpeed;
+                desiredY = seekY * seekSpeed;
+            } else {
+                desiredX = velX[i] * SLOW_DOWN;
+                desiredY = velY[i] * SLOW_DOWN;
+            }
+
+            float separateLength = (float) Math.sqrt(separateX * separateX + separateY * separateY);
+            if (separateLength > 1f) {
+                separateX /= separateLength;
+                separateY /= separateLength;
+            }
+            desiredX += separateX * separationWeight[i] * speed;
+            desiredY += separateY * separationWeight[i] * speed;
+
+            if (neighbors > 0) {
+                float pullX = (centerX / neighbors - x) / cohesionRadius[i];
+                float pullY = (centerY / neighbors - y) / cohesionRadius[i];
+                desiredX += pullX * cohesionWeight[i] * speed;
+                desiredY += pullY * cohesionWeight[i] * speed;
+            }
+
+            float desiredSq = desiredX * desiredX + desiredY * desiredY;
+            if (desiredSq > speed * speed) {
+                float scale = speed / (float) Math.sqrt(desiredSq);
+                desiredX *= scale;
+                desiredY *= scale;
+            }
+            outVelX[i] = desiredX;
+            outVelY[i] = desiredY;
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int bucketOf(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & bucketMask;
+    }
+
+    private void ensureCapacity(int count) {
+        if (posX.length >= count) return;
+        int capacity = Math.max(count, posX.length * 2);
+        bodies = new PhysicsComponent[capacity];
+        posX = new float[capacity];
+        posY = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        maxSpeed = new float[capacity];
+        arrivalRadius = new float[capacity];
+        separationRadius = new float[capacity];
+        separationWeight = new float[capacity];
+        cohesionRadius = new float[capacity];
+        cohesionWeight = new float[capacity];
+        outVelX = new float[capacity];
+        outVelY = new float[capacity];
+        agentBucket = new int[capacity];
+        sortedAgents = new int[capacity];
+    }
+
+    /**
+     * Agents steered by the last update.
+     */
+    public int getAgentCount() {
+        return agentCount;
+    }
+
+    /**
+     * Scheduler of the steering pass; its stats tell whether the last update ran sequentially or in parallel.
+     */
+    public AdaptiveGranularity getGranularity() {
+        return granularity;
+    }
+}
@@ -0,0 +1,356 @@
+package com.gameengine.core;
+
+import com.gameengine.math.CollisionUtils;
+
+import java.util.Arrays;
+
+/**
+ * Incremental sweep-and-prune broadphase. Box endpoints are kept sorted on both axes and repaired
+ * with insertion sort on each update; every endpoint swap is an overlap start or end event, so with
+ * small per-tick motion the cost is close to linear and the overlapping pair set is maintained
+ * rather than recomputed. {@link #updatePairs(PairBuffer, PairBuffer)} reports only what changed.
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+    private static final int X = 0;
+    private static final int Y = 1;
+
+    // Proxy storage; destroyed ids are held back until the next update so pending deltas stay unambiguous
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private int[] userIds = new int[64];
+    private boolean[] alive = new boolean[64];
+    private int proxyCapacityUsed;
+    private int proxyCount;
+    private int[] freeProxies = new int[16];
+    private int freeCount;
+    private int[] pendingFree = new int[16];
+    private int pendingFreeCount;
+
+    // Endpoints per axis, encoded as (proxy << 1) | isMax
+    private final int[][] endpoints = {new int[128], new int[128]};
+    private int endpointCount;
+    private boolean needsCompaction;
+
+    // Current overlapping pairs keyed by proxy ids, plus the pairs touched since the last update
+    private final LongHashSet pairSet = new LongHashSet(256);
+    private final LongHashSet touchedSet = new LongHashSet(64);
+    private long[] touched = new long[64];
+    private boolean[] touchedWasPresent = new boolean[64];
+    private int touchedCount;
+    private PairFilter filter;
+
+    private final PairBuffer scratchAdded = new PairBuffer();
+    private final PairBuffer scratchRemoved = new PairBuffer();
+
+    @Override
+    public int createProxy(float left, float top, float right, float bottom, int userId) {
+        int id;
+        if (freeCount > 0) {
+            id = freeProxies[--freeCount];
+        } else {
+            if (proxyCapacityUsed == alive.length) {
+                growProxies(alive.length * 2);
+            }
+            id = proxyCapacityUsed++;
+        }
+        minX[id] = left;
+        minY[id] = top;
+        maxX[id] = right;
+        maxY[id] = bottom;
+        userIds[id] = userId;
+        alive[id] = true;
+        proxyCount++;
+
+        // Appended at the end of both axes; the next sort moves them into place and raises the start events
+        if (endpointCount + 2 > endpoints[X].length) {
+            endpoints[X] = Arrays.copyOf(endpoints[X], endpoints[X].length * 2);
+            endpoints[Y] = Arrays.copyOf(endpoints[Y], endpoints[Y].length * 2);
+        }
+        for (int axis = X; axis <= Y; axis++) {
+            endpoints[axis][endpointCount] = id << 1;
+            endpoints[axis][endpointCount + 1] = (id << 1) | 1;
+        }
+        endpointCount += 2;
+        return id;
+    }
+
+    @Override
+    public void moveProxy(int proxyId, float left, float top, float right, float bottom) {
+        minX[proxyId] = left;
+        minY[proxyId] = top;
+        maxX[proxyId] = right;
+        maxY[proxyId] = bottom;
+    }
+
+    @Override
+    public void destroyProxy(int proxyId) {
+        if (!alive[proxyId]) return;
+        alive[proxyId] = false;
+        proxyCount--;
+        needsCompaction = true;
+
+        // Its pairs are dropped by the next update, in one pass over the pair set for all destroyed proxies
+        if (pendingFreeCount == pendingFree.length) {
+            pendingFree = Arrays.copyOf(pendingFree, pendingFreeCount * 2);
+        }
+        pendingFree[pendingFreeCount++] = proxyId;
+    }
+
+    /**
+     * Repairs the sorted axes and writes the pairs (user ids) that started and stopped overlapping
+     * since the previous update.
+     */
+    public void updatePairs(PairBuffer added, PairBuffer removed) {
+        added.clear();
+        removed.clear();
+        if (needsCompaction) {
+            compactEndpoints();
+        }
+        if (pendingFreeCount > 0) {
+            removeDeadPairs();
+        }
+        sortAxis(X);
+        sortAxis(Y);
+
+        for (int i = 0; i < touchedCount; i++) {
+            long key = touched[i];
+            boolean present = pairSet.contains(key);
+            if (present == touchedWasPresent[i]) continue;
+            int a = userIds[(int) (key >>> 32)];
+            int b = userIds[(int) key];
+            if (present) {
+                added.add(a, b);
+            } else {
+                removed.add(a, b);
+            }
+        }
+        touchedCount = 0;
+        touchedSet.clear();
+
+        for (int i = 0; i < pendingFreeCount; i++) {
+            if (freeCount == freeProxies.length) {
+                freeProxies = Arrays.copyOf(freeProxies, freeCount * 2);
+            }
+            freeProxies[freeCount++] = pendingFree[i];
+        }
+        pendingFreeCount = 0;
+    }
+
+    @Override
+    public void computePairs(PairBuffer pairs) {
+        updatePairs(scratchAdded, scratchRemoved);
+        pairs.clear();
+        for (int slot = 0; slot < pairSet.capacity(); slot++) {
+            long key = pairSet.keyAt(slot);
+            if (key == 0) continue;
+            pairs.add(userIds[(int) (key >>> 32)], userIds[(int) key]);
+        }
+    }
+
+    @Override
+    public int queryAabb(float left, float top, float right, float bottom, int[] out) {
+        return scan(left, right, left, top, right, bottom, false, out);
+    }
+
+    @Override
+    public int raycast(float x0, float y0, float x1, float y1, int[] out) {
+        return scan(Math.min(x0, x1), Math.max(x0, x1), x0, y0, x1 - x0, y1 - y0, true, out);
+    }
+
+    /**
+     * Collects proxies whose X extent overlaps [left, right] and which pass the exact test: a box
+     * overlap for (a, b, c, d) = (left, top, right, bottom), or a segment hit for (x0, y0, dx, dy).
+     */
+    private int scan(float left, float right, float a, float b, float c, float d, boolean segment, int[] out) {
+        if (out.length == 0) return 0;
+        if (needsCompaction) {
+            compactEndpoints();
+        }
+        sortAxis(X);
+        sortAxis(Y);
+
+        // A box overlaps on X iff its min lies before the query's right edge and its max after the left
+        // edge. Scan whichever of the two sorted runs is shorter.
+        int[] axis = endpoints[X];
+        int firstPastLeft = lowerBound(axis, left);
+        int firstPastRight = lowerBound(axis, right);
+        int count = 0;
+        boolean scanMins = firstPastRight <= endpointCount - firstPastLeft;
+        int from = scanMins ? 0 : firstPastLeft;
+        int to = scanMins ? firstPastRight : endpointCount;
+        int wanted = scanMins ? 0 : 1;
+        for (int i = from; i < to && count < out.length; i++) {
+            int e = axis[i];
+            if ((e & 1) != wanted) continue;
+            int p = e >> 1;
+            if (!alive[p]) continue;
+            boolean hit = segment
+                ? CollisionUtils.sweptCircleAabb(a, b, c, d, 0f, minX[p], minY[p], maxX[p], maxY[p]) >= 0f
+                : minX[p] < c && maxX[p] > a && minY[p] < d && maxY[p] > b;
+            if (hit) {
+                out[count++] = userIds[p];
+            }
+        }
+        return count;
+    }
+
+    private int lowerBound(int[] axis, float coordinate) {
+        int lo = 0;
+        int hi = endpointCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (value(X, axis[mid]) < coordinate) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * The filter is consulted when an overlap begins; a pair it rejected is picked up again only
+     * after the boxes separate and overlap anew.
+     */
+    @Override
+    public void setPairFilter(PairFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(alive, false);
+        proxyCapacityUsed = 0;
+        proxyCount = 0;
+        freeCount = 0;
+        pendingFreeCount = 0;
+        endpointCount = 0;
+        needsCompaction = false;
+        pairSet.clear();
+        touchedSet.clear();
+        touchedCount = 0;
+    }
+
+    private void sortAxis(int axis) {
+        int[] list = endpoints[axis];
+        for (int i = 1; i < endpointCount; i++) {
+            int moving = list[i];
+            float v = value(axis, moving);
+            boolean movingIsMax = (moving & 1) == 1;
+            int j = i - 1;
+            while (j >= 0 && precedes(axis, moving, v, list[j])) {
+                int other = list[j];
+                boolean otherIsMax = (other & 1) == 1;
+                int p = moving >> 1;
+                int q = other >> 1;
+                if (p != q) {
+                    if (!movingIsMax && otherIsMax) {
+                        // A min passed a max going left: the boxes may have started overlapping
+                        if (overlaps(p, q) && (filter == null || filter.shouldCollide(userIds[p], userIds[q]))) {
+                            touch(PairBuffer.key(p, q));
+                            pairSet.add(PairBuffer.key(p, q));
+                        }
+                    } else if (movingIsMax && !otherIsMax) {
+                        // A max passed a min going left: the boxes separated on this axis
+                        long key = PairBuffer.key(p, q);
+                        if (pairSet.contains(key)) {
+                            touch(key);
+                            pairSet.remove(key);
+                        }
+                    }
+                }
+                list[j + 1] = other;
+                j--;
+            }
+            list[j + 1] = moving;
+        }
+    }
+
+    /**
+     * Sort order: by coordinate, with max endpoints before min endpoints on ties so that boxes
+     * which only touch are not considered overlapping.
+     */
+    private boolean precedes(int axis, int moving, float movingValue, int other) {
+        float otherValue = value(axis, other);
+        if (movingValue != otherValue) return movingValue < otherValue;
+        return (moving & 1) == 1 && (other & 1) == 0;
+    }
+
+    private float value(int axis, int endpoint) {
+        int p = endpoint >> 1;
+        boolean isMax = (endpoint & 1) == 1;
+        if (axis == X) {
+            return isMax ? maxX[p] : minX[p];
+        }
+        return isMax ? maxY[p] : minY[p];
+    }
+
+    private boolean overlaps(int p, int q) {
+        return minX[p] < maxX[q] && maxX[p] > minX[q] && minY[p] < maxY[q] && maxY[p] > minY[q];
+    }
+
+    private void touch(long key) {
+        if (!touchedSet.add(key)) return;
+        if (touchedCount == touched.length) {
+            touched = Arrays.copyOf(touched, touchedCount * 2);
+            touchedWasPresent = Arrays.copyOf(touchedWasPresent, touchedCount * 2);
+        }
+        touched[touchedCount] = key;
+        touchedWasPresent[touchedCount] = pairSet.contains(key);
+        touchedCount++;
+    }
+
+    /**
+     * Ends every pair that involves a proxy destroyed since the last update. Destroyed ids are not
+     * reused before then, so a dead endpoint identifies them.
+     */
+    private void removeDeadPairs() {
+        for (int slot = 0; slot < pairSet.capacity(); slot++) {
+            long key = pairSet.keyAt(slot);
+            if (key == 0) continue;
+            if (!alive[(int) (key >>> 32)] || !alive[(int) key]) {
+                touch(key);
+            }
+        }
+        // Removed after the scan so the table does not shift under it
+        for (int i = 0; i < touchedCount; i++) {
+            long key = touched[i];
+            if (!alive[(int) (key >>> 32)] || !alive[(int) key]) {
+                pairSet.remove(key);
+            }
+        }
+    }
+
+    private void compactEndpoints() {
+        for (int axis = X; axis <= Y; axis++) {
+            int[] list = endpoints[axis];
+            int write = 0;
+            for (int i = 0; i < endpointCount; i++) {
+                if (alive[list[i] >> 1]) {
+                    list[write++] = list[i];
+                }
+            }
+        }
+        endpointCount = 0;
+        for (int p = 0; p < proxyCapacityUsed; p++) {
+            if (alive[p]) endpointCount += 2;
+        }
+        needsCompaction = false;
+    }
+
+    private void growProxies(int capacity) {
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+    }
+}
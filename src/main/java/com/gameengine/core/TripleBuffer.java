@@ -0,0 +1,63 @@
+package com.gameengine.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free single-producer/single-consumer triple buffer. The producer fills the back buffer and
+ * publishes it by swapping it with the shared middle slot; the consumer swaps the middle slot with
+ * its front buffer whenever something new was published. Neither side ever waits, and the consumer
+ * always sees the most recently completed buffer.
+ */
+public final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] buffers = new Object[3];
+    // Middle buffer index, plus FRESH while it holds data the consumer has not taken yet
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < 3; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * Producer side: the buffer to fill next.
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Producer side: hands the back buffer to the consumer and takes over the previous middle one.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Consumer side: takes the latest published buffer if there is one.
+     *
+     * @return true if {@link #front()} changed
+     */
+    public boolean acquire() {
+        if ((middle.get() & FRESH) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * Consumer side: the latest buffer taken by {@link #acquire()}.
+     */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        return (T) buffers[front];
+    }
+}
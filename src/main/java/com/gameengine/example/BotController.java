@@ -0,0 +1,40 @@
+package com.gameengine.example;
+
+import com.gameengine.input.InputManager;
+
+/**
+ * Scripted or AI player for headless {@link GameScene} sessions. Bots play through the same input
+ * the window would produce (movement keys, mouse position and left button), so the game code under
+ * test is exactly what a human drives.
+ */
+public interface BotController {
+    int KEY_W = 87;
+    int KEY_A = 65;
+    int KEY_S = 83;
+    int KEY_D = 68;
+    int MOUSE_LEFT = 0;
+
+    /**
+     * Called once per frame before the engine steps; reads the scene and writes into {@code input}.
+     */
+    void act(GameScene scene, InputManager input, float deltaTime);
+
+    /**
+     * Holds the movement keys for a direction, releasing the others; components below a small dead
+     * zone count as no movement on that axis.
+     */
+    static void move(InputManager input, float dx, float dy) {
+        setKey(input, KEY_A, dx < -0.3f);
+        setKey(input, KEY_D, dx > 0.3f);
+        setKey(input, KEY_W, dy < -0.3f);
+        setKey(input, KEY_S, dy > 0.3f);
+    }
+
+    static void setKey(InputManager input, int key, boolean pressed) {
+        if (pressed) {
+            input.onKeyPressed(key);
+        } else {
+            input.onKeyReleased(key);
+        }
+    }
+}
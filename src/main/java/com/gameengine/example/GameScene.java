@@ -1,12 +1,20 @@
 package com.gameengine.example;
 
+import com.gameengine.components.ColliderComponent;
 import com.gameengine.components.PhysicsComponent;
 import com.gameengine.components.RenderComponent;
+import com.gameengine.components.SteeringComponent;
 import com.gameengine.components.TransformComponent;
+import com.gameengine.core.BroadphaseType;
+import com.gameengine.core.CollisionEvents;
+import com.gameengine.core.CollisionLayers;
+import com.gameengine.core.FlowField;
 import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
 import com.gameengine.core.GameObject;
+import com.gameengine.core.ParticleManager;
 import com.gameengine.core.ParticleSystem;
+import com.gameengine.core.SteeringSystem;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.CollisionUtils;
@@ -21,12 +29,16 @@ public class GameScene extends Scene {
     private final GameEngine engine;
     private IRenderer renderer;
     private Random random;
+    private Long seed;
     private float elapsedTime;
     private float spawnTimer;
     private GameLogic gameLogic;
     private InputManager inputManager;
     private GameObject player;
+    private final SteeringSystem steeringSystem;
     private final List<GameObject> fireballs = new ArrayList<>();
+    private GameObject[] firstHitEnemy = new GameObject[64];
+    private float[] firstHitToi = new float[64];
     private boolean wasLeftMousePressed;
     private int score;
     private int maxHealth;
@@ -39,39 +51,98 @@ public class GameScene extends Scene {
     private final float MIN_SPAWN_INTERVAL = 0.1f;
     private final float BASE_SPAWN_INTERVAL = 0.5f;
     
+    public static final int LAYER_PLAYER = 0;
+    public static final int LAYER_ENEMY = 1;
+    public static final int LAYER_PROJECTILE = 2;
+    
     private boolean awaitingRestartConfirmation = false;
     
-    // Optional: Particles
-    private List<ParticleSystem> explosionParticles;
+    private static final int PARTICLE_CAPACITY = 2048;
+    // Enough for ~50 overlapping explosions; dense waves shed enemy kills' sparks first
+    private static final int PARTICLE_BUDGET = 1024;
+    private static final int PRIORITY_KILL = 0;
+    private static final int PRIORITY_PLAYER_HIT = 1;
+    private static final int PRIORITY_PLAYER_DEATH = 2;
+    private static final ParticleSystem.Config EXPLOSION = explosionConfig();
+    
+    private ParticleManager particles;
 
     public GameScene(GameEngine engine) {
+        this(engine, BroadphaseType.SPATIAL_HASH);
+    }
+
+    public GameScene(GameEngine engine, BroadphaseType broadphaseType) {
         super("GameScene");
         this.engine = engine;
+        this.steeringSystem = new SteeringSystem(engine.getWorkerPool());
+        setBroadphaseType(broadphaseType);
+    }
+
+    /**
+     * Scene whose enemy and decoration placement is reproducible from the seed.
+     */
+    public GameScene(GameEngine engine, BroadphaseType broadphaseType, long seed) {
+        this(engine, broadphaseType);
+        this.seed = seed;
     }
 
     @Override
     public void initialize() {
         super.initialize();
         this.renderer = engine.getRenderer();
-        this.random = new Random();
+        this.random = seed != null ? new Random(seed) : new Random();
         this.elapsedTime = 0f;
         this.spawnTimer = 0f;
         this.gameLogic = new GameLogic(this);
         this.gameLogic.setGameEngine(engine);
-        this.inputManager = InputManager.getInstance();
+        this.inputManager = engine.getInputManager();
         this.wasLeftMousePressed = false;
         this.score = 0;
         this.maxHealth = 15;
         this.playerHealth = maxHealth;
         this.playerDead = false;
         this.gameLogic.setOnPlayerEnemyCollision(this::handlePlayerEnemyCollision);
-        this.explosionParticles = new ArrayList<>();
-
+        addCollisionListener(gameLogic::handleCollisionEvents);
+        addCollisionListener(this::handleFireballEnemyCollisions);
+        // Seeded from the scene's random so seeded sessions stay reproducible
+        this.particles = new ParticleManager(renderer, PARTICLE_CAPACITY, new Random(random.nextLong()));
+        this.particles.setExecutor(engine.getWorkerPool());
+        this.particles.setBudget(PARTICLE_BUDGET);
+
+        configureCollisionLayers();
+        createWalls();
         createPlayer();
         createEnemies(10);
         createDecorations();
     }
 
+    /**
+     * Player-enemy, enemy-enemy and projectile-enemy pairs matter to this game; everything else is
+     * rejected in the broadphase. The contact solver pushes enemies apart, but enemies touching the
+     * player only hurt it and do not shove it around. The layer matrix is global
+     * and headless sessions may run concurrently, so it is only rewritten when it differs.
+     */
+    private static void configureCollisionLayers() {
+        synchronized (CollisionLayers.class) {
+            if (collisionLayersConfigured()) return;
+            CollisionLayers.reset();
+            CollisionLayers.setCollision(LAYER_PROJECTILE, LAYER_PROJECTILE, false);
+            CollisionLayers.setCollision(LAYER_PLAYER, LAYER_PROJECTILE, false);
+            CollisionLayers.setResponse(LAYER_PLAYER, LAYER_ENEMY, false);
+        }
+    }
+
+    private static boolean collisionLayersConfigured() {
+        return CollisionLayers.canCollide(LAYER_PLAYER, LAYER_PLAYER)
+            && CollisionLayers.canCollide(LAYER_PLAYER, LAYER_ENEMY)
+            && CollisionLayers.canCollide(LAYER_ENEMY, LAYER_ENEMY)
+            && CollisionLayers.canCollide(LAYER_ENEMY, LAYER_PROJECTILE)
+            && !CollisionLayers.canCollide(LAYER_PROJECTILE, LAYER_PROJECTILE)
+            && !CollisionLayers.canCollide(LAYER_PLAYER, LAYER_PROJECTILE)
+            && !CollisionLayers.hasResponse(LAYER_PLAYER, LAYER_ENEMY)
+            && CollisionLayers.hasResponse(LAYER_ENEMY, LAYER_ENEMY);
+    }
+
     @Override
     public void update(float deltaTime) {
         // Always check for ESC to pause/exit
@@ -131,18 +202,17 @@ public class GameScene extends Scene {
         }
 
         handleShooting();
+        updateEnemySteering();
         
         // Important: Super update calls physics system!
         super.update(deltaTime);
         
-        handleFireballEnemyCollisions();
         cleanupInactiveFireballs();
         elapsedTime += deltaTime;
         spawnTimer += deltaTime;
 
         gameLogic.handlePlayerInput(deltaTime);
-        // Physics is handled by systems in super.update(), but we need collision checks
-        gameLogic.checkCollisions();
+        // Collisions arrive as events from the PhysicsSystem after this update
 
         float spawnInterval = Math.max(MIN_SPAWN_INTERVAL, BASE_SPAWN_INTERVAL - elapsedTime * 0.05f);
         if (spawnTimer > spawnInterval) {
@@ -150,17 +220,29 @@ public class GameScene extends Scene {
             spawnTimer = 0f;
         }
         
-        updateParticles(deltaTime);
+        particles.update(deltaTime);
     }
 
-    private void updateParticles(float deltaTime) {
-        for (int i = explosionParticles.size() - 1; i >= 0; i--) {
-            ParticleSystem ps = explosionParticles.get(i);
-            ps.update(deltaTime);
-            if (ps.getParticleCount() == 0) { // Simple check if done
-                explosionParticles.remove(i);
+    /**
+     * Points the enemy crowd at the player. The shared path field around walls is created once the
+     * engine's physics (and with it the obstacle grid) exists, and only recomputed when the player
+     * changes cell.
+     */
+    private void updateEnemySteering() {
+        if (steeringSystem.getFlowField() == null && engine.getPhysicsSystem() != null) {
+            steeringSystem.setFlowField(new FlowField(engine.getPhysicsSystem().getObstacleGrid()));
+        }
+        TransformComponent transform = player != null && player.isActive()
+            ? player.getComponent(TransformComponent.class) : null;
+        if (transform == null) {
+            steeringSystem.clearTarget();
+        } else {
+            steeringSystem.setTarget(transform.getX(), transform.getY());
+            if (steeringSystem.getFlowField() != null) {
+                steeringSystem.getFlowField().update(transform.getX(), transform.getY());
             }
         }
+        steeringSystem.update(this);
     }
 
     @Override
@@ -172,9 +254,7 @@ public class GameScene extends Scene {
         super.render();
         
         // Render particles
-        for (ParticleSystem ps : explosionParticles) {
-            ps.render();
-        }
+        particles.render();
 
         // UI
         renderer.drawText(20, 30, "Score: " + score, 1.0f, 1.0f, 1.0f, 1.0f);
@@ -203,6 +283,37 @@ public class GameScene extends Scene {
         renderer.drawText(cx - 100, cy + 50, t3, 0.8f, 0.8f, 0.8f, 1f);
     }
 
+    /**
+     * Four pillars around the arena center. They are static, so the physics system bakes them into
+     * its obstacle grid; sizes are multiples of the grid's 16 px cells so they block exactly what is drawn.
+     */
+    private void createWalls() {
+        float w = renderer.getWidth();
+        float h = renderer.getHeight();
+        float wallWidth = 32f;
+        float wallHeight = 128f;
+        float[][] centers = {{0.25f, 0.3f}, {0.75f, 0.3f}, {0.25f, 0.7f}, {0.75f, 0.7f}};
+        for (float[] center : centers) {
+            // Snap to the 16 px grid
+            float x = Math.round((w * center[0] - wallWidth / 2f) / 16f) * 16f;
+            float y = Math.round((h * center[1] - wallHeight / 2f) / 16f) * 16f;
+            GameObject wall = new GameObject("Wall");
+            wall.addComponent(new TransformComponent(new Vector2(x, y)));
+
+            RenderComponent render = wall.addComponent(new RenderComponent(
+                RenderComponent.RenderType.RECTANGLE,
+                new Vector2(wallWidth, wallHeight),
+                new RenderComponent.Color(0.35f, 0.35f, 0.45f, 1.0f)
+            ));
+            render.setRenderer(renderer);
+
+            ColliderComponent collider = wall.addComponent(ColliderComponent.box(0, 0, wallWidth, wallHeight));
+            collider.setStatic(true);
+
+            addGameObject(wall);
+        }
+    }
+
     private void createPlayer() {
         GameObject player = new GameObject("Player") {
             private Vector2 basePosition;
@@ -236,6 +347,10 @@ public class GameScene extends Scene {
         player.addComponent(new TransformComponent(new Vector2(400, 300)));
         PhysicsComponent physics = player.addComponent(new PhysicsComponent(1.0f));
         physics.setFriction(0.95f);
+        ColliderComponent collider = player.addComponent(ColliderComponent.box(
+            -CollisionUtils.PLAYER_HALF_WIDTH, -CollisionUtils.PLAYER_TOP_OFFSET,
+            CollisionUtils.PLAYER_HALF_WIDTH * 2, CollisionUtils.PLAYER_TOP_OFFSET + CollisionUtils.PLAYER_BOTTOM_OFFSET));
+        collider.setLayer(LAYER_PLAYER);
 
         addGameObject(player);
         this.player = player;
@@ -263,57 +378,9 @@ public class GameScene extends Scene {
     }
 
     private void createEnemy() {
-        final float chaseSpeed = 10f + random.nextFloat() * 5f; 
-        // Using higher speed for PhysicsSystem because it handles velocity differently (units/sec)
-        // j03 used 10f + rand*5f with direct position translation in update() OR velocity
-        // j03: desiredVelocity = direction.normalize().multiply(chaseSpeed); 
-        // BUT in j03 createEnemy, it said "significantly reduced enemy speed".
-        // The PhysicsSystem in j05 applies Velocity * deltaTime.
-        // If chaseSpeed is 15, then 15 pixels/sec. That's slow but visible.
-        
-        GameObject enemy = new GameObject("Enemy") {
-            @Override
-            public void update(float deltaTime) {
-                super.update(deltaTime);
-                pursuePlayer(deltaTime);
-            }
-
-            private void pursuePlayer(float deltaTime) {
-                if (player == null || !player.isActive()) {
-                    slowDown();
-                    return;
-                }
-
-                TransformComponent enemyTransform = getComponent(TransformComponent.class);
-                TransformComponent playerTransform = player.getComponent(TransformComponent.class);
-                if (enemyTransform == null || playerTransform == null) {
-                    slowDown();
-                    return;
-                }
-
-                Vector2 direction = playerTransform.getPosition().subtract(enemyTransform.getPosition());
-                if (direction.magnitude() < 1f) {
-                    slowDown();
-                    return;
-                }
-
-                // Speed adjustment for j05 physics
-                float effectiveSpeed = chaseSpeed * 5.0f; // Boost it a bit for j05 feel
-
-                Vector2 desiredVelocity = direction.normalize().multiply(effectiveSpeed);
-                PhysicsComponent physics = getComponent(PhysicsComponent.class);
-                if (physics != null) {
-                    physics.setVelocity(desiredVelocity);
-                }
-            }
-
-            private void slowDown() {
-                PhysicsComponent physics = getComponent(PhysicsComponent.class);
-                if (physics != null) {
-                    physics.setVelocity(physics.getVelocity().multiply(0.8f));
-                }
-            }
-        };
+        // j03 chased at 10-15 px/s; j05 physics integrates velocity in units/sec, so boost it 5x
+        final float chaseSpeed = (10f + random.nextFloat() * 5f) * 5.0f;
+        GameObject enemy = new GameObject("Enemy");
 
         Vector2 position = new Vector2(
             random.nextFloat() * renderer.getWidth(),
@@ -332,6 +399,13 @@ public class GameScene extends Scene {
         PhysicsComponent physics = enemy.addComponent(new PhysicsComponent(0.5f));
         physics.setVelocity(0, 0);
         physics.setFriction(0.92f);
+        ColliderComponent collider = enemy.addComponent(ColliderComponent.box(0, 0, 20, 20));
+        collider.setLayer(LAYER_ENEMY);
+        SteeringComponent steering = enemy.addComponent(new SteeringComponent(chaseSpeed));
+        steering.setArrivalRadius(24f);
+        steering.setSeparationRadius(24f);
+        steering.setSeparationWeight(1.5f);
+        steering.setCohesionWeight(0.1f);
 
         addGameObject(enemy);
     }
@@ -416,51 +490,70 @@ public class GameScene extends Scene {
         PhysicsComponent pc = fireball.addComponent(new PhysicsComponent(1.0f));
         pc.setVelocity(normalizedDirection.multiply(FIREBALL_SPEED));
         pc.setFriction(1.0f); // No friction for fireball
+        pc.setBullet(true);
+        ColliderComponent collider = fireball.addComponent(ColliderComponent.circle(FIREBALL_RADIUS));
+        collider.setLayer(LAYER_PROJECTILE);
+        collider.setTrigger(true);
 
         addGameObject(fireball);
         fireballs.add(fireball);
     }
 
-    private void handleFireballEnemyCollisions() {
-        if (fireballs.isEmpty()) return;
+    /**
+     * Collision listener: fireballs are swept, so among the enemies a fireball starts touching this
+     * tick the one with the earliest time of impact is hit.
+     */
+    private void handleFireballEnemyCollisions(CollisionEvents events) {
+        if (fireballs.isEmpty() || events.getEnterCount() == 0) return;
+
+        int slotCount = getCollisionWorld().getSlotCount();
+        if (firstHitEnemy.length < slotCount) {
+            firstHitEnemy = new GameObject[slotCount];
+            firstHitToi = new float[slotCount];
+        }
 
-        // Collect active enemies
-        List<GameObject> enemies = new ArrayList<>();
-        for (GameObject obj : getGameObjects()) {
-            if (obj.isActive() && "Enemy".equals(obj.getName())) {
-                enemies.add(obj);
+        for (int i = 0; i < events.size(); i++) {
+            if (events.getType(i) != CollisionEvents.Type.ENTER) continue;
+            ColliderComponent a = events.getColliderA(i);
+            ColliderComponent b = events.getColliderB(i);
+            // The layer matrix only lets projectile-enemy pairs through among these two layers
+            ColliderComponent fireballCollider = a;
+            ColliderComponent enemyCollider = b;
+            if (a.getLayer() == LAYER_ENEMY) {
+                fireballCollider = b;
+                enemyCollider = a;
+            }
+            if (fireballCollider.getLayer() != LAYER_PROJECTILE || enemyCollider.getLayer() != LAYER_ENEMY) continue;
+            GameObject enemy = enemyCollider.getOwner();
+
+            float toi = events.getToi(i);
+            int slot = fireballCollider.getCollisionIndex();
+            if (firstHitEnemy[slot] == null || toi < firstHitToi[slot]) {
+                firstHitEnemy[slot] = enemy;
+                firstHitToi[slot] = toi;
             }
         }
-        if (enemies.isEmpty()) return;
-
-        for (GameObject fireball : new ArrayList<>(fireballs)) {
-            if (!fireball.isActive()) continue;
 
-            TransformComponent fireballTransform = fireball.getComponent(TransformComponent.class);
-            CollisionUtils.Rect fireballRect = CollisionUtils.circleBounds(
-                fireballTransform != null ? fireballTransform.getPosition() : null,
-                FIREBALL_RADIUS
-            );
-            if (fireballRect == null) continue;
-
-            for (GameObject enemy : enemies) {
-                if (!enemy.isActive()) continue;
+        for (GameObject fireball : fireballs) {
+            ColliderComponent collider = fireball.getComponent(ColliderComponent.class);
+            int slot = collider != null ? collider.getCollisionIndex() : -1;
+            if (slot < 0 || slot >= firstHitEnemy.length || firstHitEnemy[slot] == null) continue;
+            GameObject enemy = firstHitEnemy[slot];
+            firstHitEnemy[slot] = null;
+            if (!fireball.isActive() || !enemy.isActive()) continue;
 
-                TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
-                CollisionUtils.Rect enemyRect = CollisionUtils.enemyBounds(enemy, enemyTransform);
-                
-                if (enemyRect != null && fireballRect.intersects(enemyRect)) {
-                    enemy.setActive(false);
-                    fireball.setActive(false);
-                    score += 1;
-                    spawnExplosion(enemyTransform.getPosition());
-                    break;
-                }
-            }
+            enemy.setActive(false);
+            fireball.setActive(false);
+            score += 1;
+            spawnExplosion(enemy.getComponent(TransformComponent.class).getPosition(), PRIORITY_KILL);
         }
     }
 
-    private void spawnExplosion(Vector2 pos) {
+    private void spawnExplosion(Vector2 pos, int priority) {
+        particles.burst(EXPLOSION, pos.x, pos.y, 20, priority);
+    }
+
+    private static ParticleSystem.Config explosionConfig() {
         ParticleSystem.Config cfg = new ParticleSystem.Config();
         cfg.initialCount = 0;
         cfg.spawnRate = 9999f; // burst
@@ -474,10 +567,7 @@ public class GameScene extends Scene {
         cfg.burstGMin = 0.4f;
         cfg.burstGMax = 0.6f;
         cfg.burstB = 0.0f;
-        
-        ParticleSystem ps = new ParticleSystem(renderer, pos, cfg);
-        ps.burst(20);
-        explosionParticles.add(ps);
+        return cfg;
     }
 
     private void cleanupInactiveFireballs() {
@@ -523,7 +613,7 @@ public class GameScene extends Scene {
             fireball.setActive(false);
         }
         fireballs.clear();
-        explosionParticles.clear();
+        particles.clear();
 
         createEnemies(3);
     }
@@ -531,7 +621,7 @@ public class GameScene extends Scene {
     private void handlePlayerEnemyCollision(GameObject enemy) {
         if (enemy != null) {
             enemy.setActive(false);
-            spawnExplosion(enemy.getComponent(TransformComponent.class).getPosition());
+            spawnExplosion(enemy.getComponent(TransformComponent.class).getPosition(), PRIORITY_PLAYER_HIT);
         }
 
         if (playerDead) return;
@@ -549,7 +639,7 @@ public class GameScene extends Scene {
         gameLogic.setGameOver(true);
         if (player != null) {
             player.setActive(false);
-            spawnExplosion(player.getComponent(TransformComponent.class).getPosition());
+            spawnExplosion(player.getComponent(TransformComponent.class).getPosition(), PRIORITY_PLAYER_DEATH);
         }
         promptRestart();
     }
@@ -558,12 +648,39 @@ public class GameScene extends Scene {
         awaitingRestartConfirmation = true;
     }
     
+    public GameObject getPlayer() {
+        return player;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public int getMaxHealth() {
+        return maxHealth;
+    }
+
+    public boolean isPlayerDead() {
+        return playerDead;
+    }
+
+    /**
+     * Seconds survived in the current game.
+     */
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+
     @Override
     public void clear() {
         if (gameLogic != null) {
             gameLogic.cleanup();
         }
-        explosionParticles.clear();
+        particles.clear();
         super.clear();
     }
 }
\ No newline at end of file
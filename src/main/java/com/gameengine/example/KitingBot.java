@@ -0,0 +1,92 @@
+package com.gameengine.example;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.CollisionLayers;
+import com.gameengine.core.GameObject;
+import com.gameengine.core.SpatialQuery;
+import com.gameengine.input.InputManager;
+
+/**
+ * Heuristic bot: backs away from the closest enemies (weighted by proximity), drifts back towards
+ * the arena center when nothing is close, and shoots at the nearest enemy whenever its fire
+ * cooldown allows. Enemies are found through the scene's {@link SpatialQuery}.
+ */
+public class KitingBot implements BotController {
+    private static final int NEIGHBORS = 6;
+    private static final float DANGER_RADIUS = 160f;
+    private static final float SEARCH_RADIUS = 600f;
+
+    private final float centerX;
+    private final float centerY;
+    private final float fireInterval;
+    private final int[] slots = new int[NEIGHBORS];
+    private final float[] distances = new float[NEIGHBORS];
+    private float fireCooldown;
+    private boolean firing;
+
+    public KitingBot(int screenWidth, int screenHeight) {
+        this(screenWidth, screenHeight, 0.15f);
+    }
+
+    /**
+     * @param fireInterval seconds between shots
+     */
+    public KitingBot(int screenWidth, int screenHeight, float fireInterval) {
+        this.centerX = screenWidth * 0.5f;
+        this.centerY = screenHeight * 0.5f;
+        this.fireInterval = fireInterval;
+    }
+
+    @Override
+    public void act(GameScene scene, InputManager input, float deltaTime) {
+        GameObject player = scene.getPlayer();
+        TransformComponent transform = player != null ? player.getComponent(TransformComponent.class) : null;
+        if (transform == null) {
+            input.releaseAll();
+            return;
+        }
+        float x = transform.getX();
+        float y = transform.getY();
+
+        SpatialQuery query = scene.getSpatialQuery();
+        int found = query.nearestK(x, y, SEARCH_RADIUS, CollisionLayers.bit(GameScene.LAYER_ENEMY), slots, distances);
+
+        float moveX = 0f;
+        float moveY = 0f;
+        for (int i = 0; i < found; i++) {
+            if (distances[i] > DANGER_RADIUS) break;
+            ColliderComponent enemy = scene.getCollisionWorld().getCollider(slots[i]);
+            float awayX = x - enemy.getCenterX();
+            float awayY = y - enemy.getCenterY();
+            float length = (float) Math.sqrt(awayX * awayX + awayY * awayY);
+            if (length < 1e-3f) continue;
+            float weight = 1f - distances[i] / DANGER_RADIUS;
+            moveX += awayX / length * weight;
+            moveY += awayY / length * weight;
+        }
+        if (moveX == 0f && moveY == 0f) {
+            // Nothing close: stay away from the walls and corners
+            moveX = (centerX - x) / centerX;
+            moveY = (centerY - y) / centerY;
+        }
+        float length = (float) Math.sqrt(moveX * moveX + moveY * moveY);
+        if (length > 0f) {
+            moveX /= length;
+            moveY /= length;
+        }
+        BotController.move(input, moveX, moveY);
+
+        fireCooldown -= deltaTime;
+        if (firing) {
+            input.onMouseReleased(MOUSE_LEFT);
+            firing = false;
+        } else if (found > 0 && fireCooldown <= 0f) {
+            ColliderComponent target = scene.getCollisionWorld().getCollider(slots[0]);
+            input.onMouseMoved(target.getCenterX(), target.getCenterY());
+            input.onMousePressed(MOUSE_LEFT);
+            firing = true;
+            fireCooldown = fireInterval;
+        }
+    }
+}
@@ -35,7 +35,7 @@ public class MenuScene extends Scene {
         super(name);
         this.engine = engine;
         this.renderer = engine.getRenderer();
-        this.inputManager = InputManager.getInstance();
+        this.inputManager = engine.getInputManager();
         this.selectedIndex = 0;
         this.options = new MenuOption[]{MenuOption.START_GAME, MenuOption.REPLAY, MenuOption.EXIT};
         this.selectionMade = false;
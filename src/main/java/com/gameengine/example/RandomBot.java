@@ -0,0 +1,46 @@
+package com.gameengine.example;
+
+import com.gameengine.input.InputManager;
+
+import java.util.Random;
+
+/**
+ * Baseline bot: wanders in a random direction that changes every half second or so and fires at
+ * random points on screen.
+ */
+public class RandomBot implements BotController {
+    private final Random random;
+    private final int screenWidth;
+    private final int screenHeight;
+    private float directionTimer;
+    private float directionX;
+    private float directionY;
+    private boolean firing;
+
+    public RandomBot(long seed, int screenWidth, int screenHeight) {
+        this.random = new Random(seed);
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+    }
+
+    @Override
+    public void act(GameScene scene, InputManager input, float deltaTime) {
+        directionTimer -= deltaTime;
+        if (directionTimer <= 0f) {
+            directionTimer = 0.25f + random.nextFloat() * 0.5f;
+            directionX = random.nextFloat() * 2f - 1f;
+            directionY = random.nextFloat() * 2f - 1f;
+        }
+        BotController.move(input, directionX, directionY);
+
+        // A shot needs a press after a release, so the button alternates between frames
+        if (firing) {
+            input.onMouseReleased(MOUSE_LEFT);
+            firing = false;
+        } else if (random.nextFloat() < 0.2f) {
+            input.onMouseMoved(random.nextFloat() * screenWidth, random.nextFloat() * screenHeight);
+            input.onMousePressed(MOUSE_LEFT);
+            firing = true;
+        }
+    }
+}
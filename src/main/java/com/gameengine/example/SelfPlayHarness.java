@@ -0,0 +1,246 @@
+package com.gameengine.example;
+
+import com.gameengine.core.BroadphaseType;
+import com.gameengine.core.GameEngine;
+import com.gameengine.graphics.RenderBackend;
+import com.gameengine.input.InputManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Runs many independent headless {@link GameScene} sessions, each played by a bot, concurrently on
+ * a thread pool, and reports survival time, score and frame cost distributions. Every session has
+ * its own engine, {@link InputManager} and seeded scene, and steps at a fixed frame time, so a run
+ * is a repeatable workload for performance regressions and capacity planning. Frame cost is the
+ * wall time of {@link GameEngine#step(float)} (scene, steering, physics; no rendering).
+ * <p>
+ * Usage: {@code SelfPlayHarness [sessions] [threads] [maxSeconds] [kiting|random]}
+ */
+public class SelfPlayHarness {
+    public static final class SessionResult {
+        public final long seed;
+        public final float survivalSeconds;
+        public final int score;
+        public final boolean died;
+        public final int frames;
+        private final long[] frameNanos;
+
+        SessionResult(long seed, float survivalSeconds, int score, boolean died, long[] frameNanos) {
+            this.seed = seed;
+            this.survivalSeconds = survivalSeconds;
+            this.score = score;
+            this.died = died;
+            this.frames = frameNanos.length;
+            this.frameNanos = frameNanos;
+            Arrays.sort(this.frameNanos);
+        }
+
+        /**
+         * Frame cost at the given percentile (0-100) in nanoseconds.
+         */
+        public long frameNanosPercentile(double percentile) {
+            return percentile(frameNanos, percentile);
+        }
+    }
+
+    public static final class Report {
+        public final List<SessionResult> sessions;
+        public final long wallNanos;
+        private final long[] allFrameNanos;
+
+        Report(List<SessionResult> sessions, long wallNanos) {
+            this.sessions = sessions;
+            this.wallNanos = wallNanos;
+            int total = 0;
+            for (SessionResult session : sessions) {
+                total += session.frames;
+            }
+            allFrameNanos = new long[total];
+            int offset = 0;
+            for (SessionResult session : sessions) {
+                System.arraycopy(session.frameNanos, 0, allFrameNanos, offset, session.frames);
+                offset += session.frames;
+            }
+            Arrays.sort(allFrameNanos);
+        }
+
+        public long getTotalFrames() {
+            return allFrameNanos.length;
+        }
+
+        /**
+         * Frame cost over every frame of every session at the given percentile (0-100), in nanoseconds.
+         */
+        public long frameNanosPercentile(double percentile) {
+            return percentile(allFrameNanos, percentile);
+        }
+
+        public void print() {
+            float[] survival = new float[sessions.size()];
+            float[] scores = new float[sessions.size()];
+            int deaths = 0;
+            for (int i = 0; i < sessions.size(); i++) {
+                SessionResult session = sessions.get(i);
+                survival[i] = session.survivalSeconds;
+                scores[i] = session.score;
+                if (session.died) deaths++;
+            }
+            Arrays.sort(survival);
+            Arrays.sort(scores);
+            double seconds = wallNanos / 1e9;
+            System.out.printf("sessions: %d (%d died), wall %.2f s, %d frames (%.0f frames/s)%n",
+                sessions.size(), deaths, seconds, allFrameNanos.length, allFrameNanos.length / seconds);
+            System.out.printf("survival s: min %.1f  p50 %.1f  p90 %.1f  max %.1f%n",
+                percentile(survival, 0), percentile(survival, 50), percentile(survival, 90), percentile(survival, 100));
+            System.out.printf("score:      min %.0f  p50 %.0f  p90 %.0f  max %.0f%n",
+                percentile(scores, 0), percentile(scores, 50), percentile(scores, 90), percentile(scores, 100));
+            System.out.printf("frame us:   p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                frameNanosPercentile(50) / 1e3, frameNanosPercentile(90) / 1e3, frameNanosPercentile(99) / 1e3,
+                frameNanosPercentile(99.9) / 1e3, frameNanosPercentile(100) / 1e3);
+        }
+    }
+
+    private int sessionCount = 100;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private float maxSeconds = 120f;
+    private float frameTime = 1f / 60f;
+    private int screenWidth = 800;
+    private int screenHeight = 600;
+    private long baseSeed = 1L;
+    private BroadphaseType broadphaseType = BroadphaseType.SPATIAL_HASH;
+    private LongFunction<BotController> botFactory = seed -> new KitingBot(screenWidth, screenHeight);
+
+    public static void main(String[] args) {
+        SelfPlayHarness harness = new SelfPlayHarness();
+        if (args.length > 0) harness.setSessionCount(Integer.parseInt(args[0]));
+        if (args.length > 1) harness.setThreads(Integer.parseInt(args[1]));
+        if (args.length > 2) harness.setMaxSeconds(Float.parseFloat(args[2]));
+        if (args.length > 3 && "random".equals(args[3])) {
+            harness.setBotFactory(seed -> new RandomBot(seed, harness.screenWidth, harness.screenHeight));
+        }
+        harness.run().print();
+    }
+
+    /**
+     * Plays all sessions and waits for them; sessions are seeded {@code baseSeed}, {@code baseSeed + 1}, ...
+     */
+    public Report run() {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<SessionResult>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < sessionCount; i++) {
+            final long seed = baseSeed + i;
+            futures.add(pool.submit(() -> runSession(seed)));
+        }
+        List<SessionResult> results = new ArrayList<>();
+        for (Future<SessionResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        long wallNanos = System.nanoTime() - start;
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Report(results, wallNanos);
+    }
+
+    /**
+     * One session on the calling thread: until the player dies or {@code maxSeconds} of game time pass.
+     */
+    public SessionResult runSession(long seed) {
+        InputManager input = new InputManager();
+        GameEngine engine = new GameEngine(screenWidth, screenHeight, "SelfPlay-" + seed, RenderBackend.HEADLESS, input);
+        // Sessions already fill the pool; per-session physics workers would only compete with them
+        engine.setParallelPhysics(false);
+        GameScene scene = new GameScene(engine, broadphaseType, seed);
+        engine.setScene(scene);
+        BotController bot = botFactory.apply(seed);
+
+        int maxFrames = (int) Math.ceil(maxSeconds / frameTime);
+        long[] frameNanos = new long[maxFrames];
+        int frames = 0;
+        try {
+            engine.begin();
+            while (frames < maxFrames && !scene.isPlayerDead()) {
+                bot.act(scene, input, frameTime);
+                long frameStart = System.nanoTime();
+                engine.step(frameTime);
+                frameNanos[frames++] = System.nanoTime() - frameStart;
+            }
+            return new SessionResult(seed, scene.getElapsedTime(), scene.getScore(), scene.isPlayerDead(),
+                Arrays.copyOf(frameNanos, frames));
+        } finally {
+            engine.cleanup();
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0L;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static float percentile(float[] sorted, double percentile) {
+        if (sorted.length == 0) return 0f;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public void setSessionCount(int sessionCount) {
+        this.sessionCount = Math.max(1, sessionCount);
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Game-time cap per session, in seconds.
+     */
+    public void setMaxSeconds(float maxSeconds) {
+        this.maxSeconds = Math.max(frameTime, maxSeconds);
+    }
+
+    /**
+     * Fixed simulation step per frame, in seconds.
+     */
+    public void setFrameTime(float frameTime) {
+        if (frameTime <= 0f) {
+            throw new IllegalArgumentException("frameTime must be positive: " + frameTime);
+        }
+        this.frameTime = frameTime;
+    }
+
+    public void setScreenSize(int width, int height) {
+        this.screenWidth = width;
+        this.screenHeight = height;
+    }
+
+    public void setBaseSeed(long baseSeed) {
+        this.baseSeed = baseSeed;
+    }
+
+    public void setBroadphaseType(BroadphaseType broadphaseType) {
+        this.broadphaseType = broadphaseType;
+    }
+
+    /**
+     * Creates the bot for a session from its seed.
+     */
+    public void setBotFactory(LongFunction<BotController> botFactory) {
+        this.botFactory = botFactory;
+    }
+}
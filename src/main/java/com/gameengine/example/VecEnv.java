@@ -0,0 +1,355 @@
+package com.gameengine.example;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.BroadphaseType;
+import com.gameengine.core.CollisionLayers;
+import com.gameengine.core.GameEngine;
+import com.gameengine.core.GameObject;
+import com.gameengine.graphics.RenderBackend;
+import com.gameengine.input.InputManager;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Batched reinforcement-learning environment over {@code N} independent headless {@link GameScene}
+ * worlds, stepped in parallel on a fork-join pool. Actions, observations, rewards and done flags
+ * are flat preallocated arrays indexed by world, so a trainer can hand them to its tensors without
+ * per-step allocation.
+ * <p>
+ * Each world has its own engine and {@link InputManager}; actions are turned into the same key and
+ * mouse input a player would produce. A world whose episode ends is reset straight away with its
+ * next seed ({@code seed + N}), so the observation returned for it already belongs to the new
+ * episode; the final observation of the old one is kept in {@link #getTerminalObservations()}.
+ * <p>
+ * Action layout per world ({@link #ACTION_SIZE} floats): move x, move y (each in [-1, 1], with a
+ * small dead zone), aim x, aim y (direction from the player) and fire (&gt; 0 shoots once this step).
+ * <p>
+ * Observation layout per world ({@link #getObservationSize()} floats): player x and y as a fraction
+ * of the screen, health fraction, score, seconds survived, number of enemies, then for each of the
+ * nearest {@code observedEnemies} enemies its offset from the player as a fraction of the screen
+ * and a 1/0 presence flag.
+ * <p>
+ * Reward per step is score gained minus health lost.
+ */
+public class VecEnv {
+    public static final int ACTION_SIZE = 5;
+    public static final int PLAYER_FEATURES = 6;
+    public static final int ENEMY_FEATURES = 3;
+
+    private final int numEnvs;
+    private final int observedEnemies;
+    private final int observationSize;
+    private final int screenWidth;
+    private final int screenHeight;
+    private final ForkJoinPool pool;
+    private final World[] worlds;
+    private final float[] observations;
+    private final float[] terminalObservations;
+    private final float[] rewards;
+    private final boolean[] dones;
+    private final boolean[] truncations;
+    private final Future<?>[] futures;
+    private final int chunkCount;
+    private float frameTime = 1f / 60f;
+    private int frameSkip = 2;
+    private int maxEpisodeSteps = 10_000;
+    private BroadphaseType broadphaseType = BroadphaseType.SPATIAL_HASH;
+
+    public VecEnv(int numEnvs) {
+        this(numEnvs, 16, 800, 600, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param observedEnemies number of nearest enemies included in each observation
+     */
+    public VecEnv(int numEnvs, int observedEnemies, int screenWidth, int screenHeight, ForkJoinPool pool) {
+        if (numEnvs <= 0) {
+            throw new IllegalArgumentException("numEnvs must be positive: " + numEnvs);
+        }
+        this.numEnvs = numEnvs;
+        this.observedEnemies = Math.max(0, observedEnemies);
+        this.observationSize = PLAYER_FEATURES + this.observedEnemies * ENEMY_FEATURES;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.pool = pool;
+        this.worlds = new World[numEnvs];
+        this.observations = new float[numEnvs * observationSize];
+        this.terminalObservations = new float[numEnvs * observationSize];
+        this.rewards = new float[numEnvs];
+        this.dones = new boolean[numEnvs];
+        this.truncations = new boolean[numEnvs];
+        // A few chunks per worker even out worlds that happen to be busier than others
+        this.chunkCount = Math.min(numEnvs, pool.getParallelism() * 4);
+        this.futures = new Future<?>[chunkCount];
+        for (int i = 0; i < numEnvs; i++) {
+            worlds[i] = new World(this.observedEnemies);
+        }
+    }
+
+    /**
+     * Starts a new episode in every world, world {@code i} seeded with {@code seeds[i]}.
+     *
+     * @return the shared observation buffer
+     */
+    public float[] reset(long[] seeds) {
+        if (seeds.length != numEnvs) {
+            throw new IllegalArgumentException("expected " + numEnvs + " seeds, got " + seeds.length);
+        }
+        runChunks((start, end) -> {
+            for (int i = start; i < end; i++) {
+                resetWorld(i, seeds[i]);
+                writeObservation(i, observations);
+            }
+        });
+        Arrays.fill(rewards, 0f);
+        Arrays.fill(dones, false);
+        Arrays.fill(truncations, false);
+        return observations;
+    }
+
+    /**
+     * Applies one action per world and advances every world by {@code frameSkip} frames.
+     *
+     * @param actions {@code numEnvs * ACTION_SIZE} floats, see the class comment
+     * @return the shared observation buffer; rewards and done flags are in {@link #getRewards()},
+     *         {@link #getDones()} and {@link #getTruncations()}
+     */
+    public float[] step(float[] actions) {
+        if (actions.length < numEnvs * ACTION_SIZE) {
+            throw new IllegalArgumentException("expected " + numEnvs * ACTION_SIZE + " actions, got " + actions.length);
+        }
+        for (World world : worlds) {
+            if (world.scene == null) {
+                throw new IllegalStateException("reset() must be called before step()");
+            }
+        }
+        runChunks((start, end) -> {
+            for (int i = start; i < end; i++) {
+                stepWorld(i, actions);
+            }
+        });
+        return observations;
+    }
+
+    private void resetWorld(int index, long seed) {
+        World world = worlds[index];
+        if (world.engine == null) {
+            world.engine = new GameEngine(screenWidth, screenHeight, "VecEnv-" + index, RenderBackend.HEADLESS, world.input);
+            // Worlds already run side by side on the pool
+            world.engine.setParallelPhysics(false);
+            world.engine.begin();
+        }
+        world.input.releaseAll();
+        world.input.update();
+        world.seed = seed;
+        world.scene = new GameScene(world.engine, broadphaseType, seed);
+        world.engine.setScene(world.scene);
+        // A zero-length frame adds the scene's objects and fills its collision world, so the first
+        // observation already sees the player and the enemies
+        world.engine.step(0f);
+        world.steps = 0;
+        world.lastScore = world.scene.getScore();
+        world.lastHealth = world.scene.getPlayerHealth();
+    }
+
+    private void stepWorld(int index, float[] actions) {
+        World world = worlds[index];
+        int base = index * ACTION_SIZE;
+        BotController.move(world.input, actions[base], actions[base + 1]);
+        boolean fire = actions[base + 4] > 0f;
+        if (fire) {
+            TransformComponent transform = world.player();
+            if (transform != null) {
+                world.input.onMouseMoved(transform.getX() + actions[base + 2] * screenWidth,
+                    transform.getY() + actions[base + 3] * screenHeight);
+            }
+        }
+        for (int frame = 0; frame < frameSkip && !world.scene.isPlayerDead(); frame++) {
+            // Shots trigger on the press edge, so the button is held for the first frame only
+            if (fire && frame == 0) {
+                world.input.onMousePressed(BotController.MOUSE_LEFT);
+            } else {
+                world.input.onMouseReleased(BotController.MOUSE_LEFT);
+            }
+            world.engine.step(frameTime);
+        }
+        world.steps++;
+
+        GameScene scene = world.scene;
+        rewards[index] = (scene.getScore() - world.lastScore) - (world.lastHealth - scene.getPlayerHealth());
+        world.lastScore = scene.getScore();
+        world.lastHealth = scene.getPlayerHealth();
+        dones[index] = scene.isPlayerDead();
+        truncations[index] = !dones[index] && world.steps >= maxEpisodeSteps;
+        if (dones[index] || truncations[index]) {
+            writeObservation(index, terminalObservations);
+            resetWorld(index, world.seed + numEnvs);
+        }
+        writeObservation(index, observations);
+    }
+
+    private void writeObservation(int index, float[] out) {
+        World world = worlds[index];
+        GameScene scene = world.scene;
+        int base = index * observationSize;
+        Arrays.fill(out, base, base + observationSize, 0f);
+        TransformComponent transform = world.player();
+        float x = transform != null ? transform.getX() : 0f;
+        float y = transform != null ? transform.getY() : 0f;
+        out[base] = x / screenWidth;
+        out[base + 1] = y / screenHeight;
+        out[base + 2] = scene.getMaxHealth() > 0 ? scene.getPlayerHealth() / (float) scene.getMaxHealth() : 0f;
+        out[base + 3] = scene.getScore();
+        out[base + 4] = scene.getElapsedTime();
+        out[base + 5] = countEnemies(scene);
+        if (observedEnemies == 0 || transform == null) return;
+
+        float searchRadius = (float) Math.sqrt((double) screenWidth * screenWidth + (double) screenHeight * screenHeight);
+        int found = scene.getSpatialQuery().nearestK(x, y, searchRadius,
+            CollisionLayers.bit(GameScene.LAYER_ENEMY), world.slots, world.distances);
+        int offset = base + PLAYER_FEATURES;
+        for (int i = 0; i < found; i++) {
+            ColliderComponent enemy = scene.getCollisionWorld().getCollider(world.slots[i]);
+            out[offset] = (enemy.getCenterX() - x) / screenWidth;
+            out[offset + 1] = (enemy.getCenterY() - y) / screenHeight;
+            out[offset + 2] = 1f;
+            offset += ENEMY_FEATURES;
+        }
+    }
+
+    private static int countEnemies(GameScene scene) {
+        int count = 0;
+        for (GameObject obj : scene.getGameObjects()) {
+            if (obj.isActive() && "Enemy".equals(obj.getName())) count++;
+        }
+        return count;
+    }
+
+    private interface RangeTask {
+        void run(int start, int end);
+    }
+
+    private void runChunks(RangeTask task) {
+        if (chunkCount == 1) {
+            task.run(0, numEnvs);
+            return;
+        }
+        for (int c = 0; c < chunkCount; c++) {
+            final int start = (int) ((long) numEnvs * c / chunkCount);
+            final int end = (int) ((long) numEnvs * (c + 1) / chunkCount);
+            futures[c] = pool.submit(() -> task.run(start, end));
+        }
+        for (int c = 0; c < chunkCount; c++) {
+            try {
+                futures[c].get();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            futures[c] = null;
+        }
+    }
+
+    /**
+     * Shuts down every world's engine; the environment cannot be used afterwards.
+     */
+    public void close() {
+        for (World world : worlds) {
+            if (world.engine != null) {
+                world.engine.cleanup();
+                world.engine = null;
+                world.scene = null;
+            }
+        }
+    }
+
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    public float[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Final observation of each world whose episode ended on the last step; other entries are stale.
+     */
+    public float[] getTerminalObservations() {
+        return terminalObservations;
+    }
+
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * True for worlds whose player died on the last step.
+     */
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    /**
+     * True for worlds cut off by {@link #setMaxEpisodeSteps} on the last step.
+     */
+    public boolean[] getTruncations() {
+        return truncations;
+    }
+
+    public GameScene getScene(int index) {
+        return worlds[index].scene;
+    }
+
+    public void setFrameTime(float frameTime) {
+        if (frameTime <= 0f) {
+            throw new IllegalArgumentException("frameTime must be positive: " + frameTime);
+        }
+        this.frameTime = frameTime;
+    }
+
+    /**
+     * Frames simulated per {@link #step}, repeating the action. At least 2 lets fire shoot every step.
+     */
+    public void setFrameSkip(int frameSkip) {
+        this.frameSkip = Math.max(1, frameSkip);
+    }
+
+    public void setMaxEpisodeSteps(int maxEpisodeSteps) {
+        this.maxEpisodeSteps = Math.max(1, maxEpisodeSteps);
+    }
+
+    /**
+     * Broadphase for worlds created by later resets.
+     */
+    public void setBroadphaseType(BroadphaseType broadphaseType) {
+        this.broadphaseType = broadphaseType;
+    }
+
+    private static final class World {
+        final InputManager input = new InputManager();
+        final int[] slots;
+        final float[] distances;
+        GameEngine engine;
+        GameScene scene;
+        long seed;
+        int steps;
+        int lastScore;
+        int lastHealth;
+
+        World(int observedEnemies) {
+            this.slots = new int[observedEnemies];
+            this.distances = new float[observedEnemies];
+        }
+
+        TransformComponent player() {
+            GameObject player = scene.getPlayer();
+            return player != null ? player.getComponent(TransformComponent.class) : null;
+        }
+    }
+}
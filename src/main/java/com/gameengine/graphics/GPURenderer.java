@@ -1,6 +1,7 @@
 package com.gameengine.graphics;
 
 import com.gameengine.input.InputManager;
+import com.gameengine.math.FastTrig;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.opengl.GL;
@@ -203,11 +204,9 @@ public class GPURenderer implements IRenderer {
         GL11.glBegin(GL11.GL_TRIANGLE_FAN);
         GL11.glVertex2f(x, y);
         
-        for (int i = 0; i <= segments; i++) {
-            float angle = (float) (i * 2.0 * Math.PI / segments);
-            float px = x + (float) (radius * Math.cos(angle));
-            float py = y + (float) (radius * Math.sin(angle));
-            GL11.glVertex2f(px, py);
+        float[] unit = FastTrig.unitCircle(segments);
+        for (int i = 0; i < unit.length; i += 2) {
+            GL11.glVertex2f(x + radius * unit[i], y + radius * unit[i + 1]);
         }
         GL11.glEnd();
     }
@@ -0,0 +1,81 @@
+package com.gameengine.graphics;
+
+/**
+ * Renderer without a window or GPU context, for simulations, bots and tests. Draw calls are only
+ * counted, and the window never asks to close.
+ */
+public class HeadlessRenderer implements IRenderer {
+    private final int width;
+    private final int height;
+    private final String title;
+    private long drawCalls;
+
+    public HeadlessRenderer(int width, int height, String title) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+    }
+
+    @Override
+    public void beginFrame() {
+    }
+
+    @Override
+    public void endFrame() {
+    }
+
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
+        drawCalls++;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return false;
+    }
+
+    @Override
+    public void pollEvents() {
+    }
+
+    @Override
+    public void cleanup() {
+    }
+
+    /**
+     * Draw calls issued since creation.
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+}
@@ -15,7 +15,11 @@ public class InputManager {
     private boolean[] mouseButtons;
     private boolean[] mouseButtonsJustPressed;
     
-    private InputManager() {
+    /**
+     * Creates an input state detached from the window, fed by calling the {@code on*} methods
+     * directly (bots, replays, tests). The window's input is {@link #getInstance()}.
+     */
+    public InputManager() {
         pressedKeys = new HashSet<>();
         justPressedKeys = new HashSet<>();
         keyStates = new HashMap<>();
@@ -51,6 +55,19 @@ public class InputManager {
         keyStates.put(keyCode, false);
     }
     
+    /**
+     * Releases every held key and mouse button.
+     */
+    public void releaseAll() {
+        for (Integer key : pressedKeys) {
+            keyStates.put(key, false);
+        }
+        pressedKeys.clear();
+        for (int i = 0; i < mouseButtons.length; i++) {
+            mouseButtons[i] = false;
+        }
+    }
+    
     public void onMouseMoved(float x, float y) {
         mousePosition.x = x;
         mousePosition.y = y;
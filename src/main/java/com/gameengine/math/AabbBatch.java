@@ -0,0 +1,102 @@
+package com.gameengine.math;
+
+import java.util.Arrays;
+
+/**
+ * Growable structure-of-arrays set of axis-aligned boxes with allocation-free batch overlap queries.
+ */
+public final class AabbBatch {
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+    private int size;
+
+    public AabbBatch() {
+        this(64);
+    }
+
+    public AabbBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        minX = new float[capacity];
+        minY = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+    }
+
+    public int add(float left, float top, float right, float bottom) {
+        if (size == minX.length) {
+            grow(size * 2);
+        }
+        minX[size] = left;
+        minY[size] = top;
+        maxX[size] = right;
+        maxY[size] = bottom;
+        return size++;
+    }
+
+    public void set(int index, float left, float top, float right, float bottom) {
+        minX[index] = left;
+        minY[index] = top;
+        maxX[index] = right;
+        maxY[index] = bottom;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean overlaps(int index, float left, float top, float right, float bottom) {
+        return left < maxX[index] && right > minX[index] && top < maxY[index] && bottom > minY[index];
+    }
+
+    /**
+     * Tests the query box against every stored box and writes the indices of overlapping boxes into {@code out}.
+     *
+     * @return number of indices written (at most {@code out.length})
+     */
+    public int queryOverlaps(float left, float top, float right, float bottom, int[] out) {
+        int count = 0;
+        int limit = out.length;
+        for (int i = 0; i < size && count < limit; i++) {
+            if (left < maxX[i] && right > minX[i] && top < maxY[i] && bottom > minY[i]) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Overlap flags for every stored box, see {@link BatchKernels#overlapMask}.
+     */
+    public int overlapMask(float left, float top, float right, float bottom, boolean[] mask) {
+        return BatchKernels.overlapMask(left, top, right, bottom, minX, minY, maxX, maxY, mask, 0, size);
+    }
+
+    public float getMinX(int index) {
+        return minX[index];
+    }
+
+    public float getMinY(int index) {
+        return minY[index];
+    }
+
+    public float getMaxX(int index) {
+        return maxX[index];
+    }
+
+    public float getMaxY(int index) {
+        return maxY[index];
+    }
+
+    private void grow(int capacity) {
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+    }
+}
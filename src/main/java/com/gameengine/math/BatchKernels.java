@@ -0,0 +1,101 @@
+package com.gameengine.math;
+
+/**
+ * Range-based kernels over flat float arrays (structure-of-arrays layout).
+ * Loops are kept branch-light with unit stride so the JIT can auto-vectorize them.
+ */
+public final class BatchKernels {
+
+    private BatchKernels() {
+        // Utility class
+    }
+
+    /**
+     * Semi-implicit Euler step: v = (v + a * dt) * friction, p += v * dt.
+     */
+    public static void integrate(float[] px, float[] py, float[] vx, float[] vy,
+                                 float[] ax, float[] ay, float[] friction,
+                                 float deltaTime, int from, int to) {
+        for (int i = from; i < to; i++) {
+            float f = friction[i];
+            float nvx = (vx[i] + ax[i] * deltaTime) * f;
+            float nvy = (vy[i] + ay[i] * deltaTime) * f;
+            vx[i] = nvx;
+            vy[i] = nvy;
+            px[i] += nvx * deltaTime;
+            py[i] += nvy * deltaTime;
+        }
+    }
+
+    /**
+     * Reflects velocity on any axis touching or crossing [min, max] and clamps the position into it.
+     */
+    public static void clampAndReflect(float[] px, float[] py, float[] vx, float[] vy,
+                                       float minX, float minY, float maxX, float maxY,
+                                       int from, int to) {
+        for (int i = from; i < to; i++) {
+            float x = px[i];
+            float y = py[i];
+            vx[i] = (x <= minX || x >= maxX) ? -vx[i] : vx[i];
+            vy[i] = (y <= minY || y >= maxY) ? -vy[i] : vy[i];
+            px[i] = Math.min(maxX, Math.max(minX, x));
+            py[i] = Math.min(maxY, Math.max(minY, y));
+        }
+    }
+
+    /**
+     * Writes into {@code mask} whether each box overlaps the query box (strict, like {@link CollisionUtils.Rect#intersects}).
+     *
+     * @return number of overlapping boxes in the range
+     */
+    public static int overlapMask(float qMinX, float qMinY, float qMaxX, float qMaxY,
+                                  float[] minX, float[] minY, float[] maxX, float[] maxY,
+                                  boolean[] mask, int from, int to) {
+        int hits = 0;
+        for (int i = from; i < to; i++) {
+            boolean hit = qMinX < maxX[i] & qMaxX > minX[i] & qMinY < maxY[i] & qMaxY > minY[i];
+            mask[i] = hit;
+            hits += hit ? 1 : 0;
+        }
+        return hits;
+    }
+
+    /**
+     * Particle step: moves, ages, fades alpha by remaining life and damps velocity.
+     * Entries whose life drops to zero or below are left for the caller to compact.
+     */
+    public static void decayParticles(float[] px, float[] py, float[] vx, float[] vy,
+                                      float[] life, float[] maxLife, float[] alpha,
+                                      float damping, float deltaTime, int from, int to) {
+        for (int i = from; i < to; i++) {
+            px[i] += vx[i] * deltaTime;
+            py[i] += vy[i] * deltaTime;
+            float l = life[i] - deltaTime;
+            life[i] = l;
+            alpha[i] = l / maxLife[i];
+            vx[i] *= damping;
+            vy[i] *= damping;
+        }
+    }
+
+    /**
+     * Ends particles that can no longer be seen: outside [min, max] or with alpha times opacity at
+     * or below {@code minAlpha}. Their life is set to zero so the caller's compaction drops them.
+     *
+     * @return number of particles ended by this call
+     */
+    public static int cullParticles(float[] px, float[] py, float[] alpha, float[] opacity, float[] life,
+                                    float minX, float minY, float maxX, float maxY, float minAlpha,
+                                    int from, int to) {
+        int culled = 0;
+        for (int i = from; i < to; i++) {
+            float x = px[i];
+            float y = py[i];
+            boolean hidden = x < minX | x > maxX | y < minY | y > maxY | alpha[i] * opacity[i] <= minAlpha;
+            boolean cull = hidden & life[i] > 0f;
+            life[i] = cull ? 0f : life[i];
+            culled += cull ? 1 : 0;
+        }
+        return culled;
+    }
+}
@@ -60,6 +60,83 @@ public final class CollisionUtils {
         return new Rect(left, top, right, bottom);
     }
 
+    /**
+     * Time of impact of a circle moving from (x0, y0) by (dx, dy) against a static box.
+     *
+     * @return fraction of the motion in [0, 1] at first contact, 0 if already overlapping, or -1 on a miss
+     */
+    public static float sweptCircleAabb(float x0, float y0, float dx, float dy, float radius,
+                                        float minX, float minY, float maxX, float maxY) {
+        float nearestX = Math.max(minX, Math.min(x0, maxX));
+        float nearestY = Math.max(minY, Math.min(y0, maxY));
+        float ox = x0 - nearestX;
+        float oy = y0 - nearestY;
+        if (ox * ox + oy * oy < radius * radius) {
+            return 0f;
+        }
+
+        // Ray against the box grown by the radius (slab test)
+        float tEnter = 0f;
+        float tExit = 1f;
+        if (Math.abs(dx) < 1e-9f) {
+            if (x0 < minX - radius || x0 > maxX + radius) return -1f;
+        } else {
+            float inv = 1f / dx;
+            float t1 = (minX - radius - x0) * inv;
+            float t2 = (maxX + radius - x0) * inv;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        }
+        if (Math.abs(dy) < 1e-9f) {
+            if (y0 < minY - radius || y0 > maxY + radius) return -1f;
+        } else {
+            float inv = 1f / dy;
+            float t1 = (minY - radius - y0) * inv;
+            float t2 = (maxY + radius - y0) * inv;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        }
+        if (tEnter > tExit) return -1f;
+
+        // Entering through a corner square only counts if the rounded corner is actually hit
+        float px = x0 + dx * tEnter;
+        float py = y0 + dy * tEnter;
+        boolean outsideX = px < minX || px > maxX;
+        boolean outsideY = py < minY || py > maxY;
+        if (outsideX && outsideY) {
+            float cornerX = px < minX ? minX : maxX;
+            float cornerY = py < minY ? minY : maxY;
+            return rayCircle(x0, y0, dx, dy, cornerX, cornerY, radius);
+        }
+        return tEnter;
+    }
+
+    /**
+     * First contact of the segment from (x0, y0) along (dx, dy) with a circle.
+     *
+     * @return fraction in [0, 1], 0 if the start lies inside the circle, or -1 on a miss
+     */
+    public static float segmentCircle(float x0, float y0, float dx, float dy, float cx, float cy, float radius) {
+        float ox = x0 - cx;
+        float oy = y0 - cy;
+        if (ox * ox + oy * oy < radius * radius) {
+            return 0f;
+        }
+        return rayCircle(x0, y0, dx, dy, cx, cy, radius);
+    }
+
+    private static float rayCircle(float x0, float y0, float dx, float dy, float cx, float cy, float radius) {
+        float mx = x0 - cx;
+        float my = y0 - cy;
+        float a = dx * dx + dy * dy;
+        float b = 2f * (mx * dx + my * dy);
+        float c = mx * mx + my * my - radius * radius;
+        float discriminant = b * b - 4f * a * c;
+        if (a < 1e-12f || discriminant < 0f) return -1f;
+        float t = (-b - (float) Math.sqrt(discriminant)) / (2f * a);
+        return (t >= 0f && t <= 1f) ? t : -1f;
+    }
+
     public static final class Rect {
         public final float left;
         public final float top;
@@ -0,0 +1,74 @@
+package com.gameengine.math;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Table-based sine/cosine and cached unit-circle vertex tables.
+ * Precision is the table size: 2^bits samples per turn with linear interpolation.
+ */
+public final class FastTrig {
+    public static final float TWO_PI = (float) (Math.PI * 2.0);
+    public static final int DEFAULT_PRECISION_BITS = 12;
+
+    private static volatile float[] sinTable = buildTable(DEFAULT_PRECISION_BITS);
+    private static final ConcurrentMap<Integer, float[]> unitCircles = new ConcurrentHashMap<>();
+
+    private FastTrig() {
+        // Utility class
+    }
+
+    /**
+     * Rebuilds the lookup table with 2^bits samples (clamped to 6..20).
+     */
+    public static void setPrecisionBits(int bits) {
+        sinTable = buildTable(Math.max(6, Math.min(20, bits)));
+    }
+
+    public static int getTableSize() {
+        return sinTable.length - 1;
+    }
+
+    public static float sin(float radians) {
+        float[] table = sinTable;
+        int size = table.length - 1;
+        float index = radians * (size / TWO_PI);
+        float floor = (float) Math.floor(index);
+        int i = (int) floor & (size - 1);
+        float t = index - floor;
+        return table[i] + (table[i + 1] - table[i]) * t;
+    }
+
+    public static float cos(float radians) {
+        return sin(radians + (float) (Math.PI * 0.5));
+    }
+
+    /**
+     * Unit circle sampled at {@code segments + 1} points (the last repeats the first),
+     * interleaved as x0, y0, x1, y1, ... Cached per segment count; callers must not modify it.
+     */
+    public static float[] unitCircle(int segments) {
+        int n = Math.max(3, segments);
+        return unitCircles.computeIfAbsent(n, FastTrig::buildUnitCircle);
+    }
+
+    private static float[] buildUnitCircle(int segments) {
+        float[] vertices = new float[(segments + 1) * 2];
+        for (int i = 0; i <= segments; i++) {
+            double angle = i * 2.0 * Math.PI / segments;
+            vertices[i * 2] = (float) Math.cos(angle);
+            vertices[i * 2 + 1] = (float) Math.sin(angle);
+        }
+        return vertices;
+    }
+
+    private static float[] buildTable(int bits) {
+        int size = 1 << bits;
+        // One extra sample so interpolation at the last index needs no wrap check
+        float[] table = new float[size + 1];
+        for (int i = 0; i <= size; i++) {
+            table[i] = (float) Math.sin(i * 2.0 * Math.PI / size);
+        }
+        return table;
+    }
+}
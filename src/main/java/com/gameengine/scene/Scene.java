@@ -1,6 +1,10 @@
 package com.gameengine.scene;
 
+import com.gameengine.core.BroadphaseType;
+import com.gameengine.core.CollisionListener;
+import com.gameengine.core.CollisionWorld;
 import com.gameengine.core.GameObject;
+import com.gameengine.core.SpatialQuery;
 import com.gameengine.core.Component;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -11,6 +15,10 @@ public class Scene {
     private List<GameObject> objectsToAdd;
     private List<GameObject> objectsToRemove;
     private boolean initialized;
+    private CollisionWorld collisionWorld;
+    private SpatialQuery spatialQuery;
+    private BroadphaseType broadphaseType = BroadphaseType.SPATIAL_HASH;
+    private final List<CollisionListener> collisionListeners = new ArrayList<>();
     
     public Scene(String name) {
         this.name = name;
@@ -78,9 +86,66 @@ public class Scene {
     }
     
     public void clear() {
+        if (collisionWorld != null) {
+            collisionWorld.clear();
+        }
         gameObjects.clear();
         objectsToAdd.clear();
         objectsToRemove.clear();
+        collisionListeners.clear();
+    }
+    
+    public CollisionWorld getCollisionWorld() {
+        if (collisionWorld == null) {
+            collisionWorld = new CollisionWorld(broadphaseType.create());
+        }
+        return collisionWorld;
+    }
+    
+    /**
+     * Radius, box, raycast and nearest-k queries over this scene's colliders, except solid static
+     * ones; see {@link SpatialQuery#raycastStatic} for those.
+     */
+    public SpatialQuery getSpatialQuery() {
+        if (spatialQuery == null) {
+            spatialQuery = new SpatialQuery(getCollisionWorld());
+        }
+        return spatialQuery;
+    }
+    
+    /**
+     * Subscribes to the collision events the physics system emits for this scene each tick.
+     */
+    public void addCollisionListener(CollisionListener listener) {
+        if (listener != null && !collisionListeners.contains(listener)) {
+            collisionListeners.add(listener);
+        }
+    }
+    
+    public void removeCollisionListener(CollisionListener listener) {
+        collisionListeners.remove(listener);
+    }
+    
+    public List<CollisionListener> getCollisionListeners() {
+        return collisionListeners;
+    }
+    
+    public BroadphaseType getBroadphaseType() {
+        return broadphaseType;
+    }
+    
+    /**
+     * Selects the broadphase used by this scene's collision world. Existing registrations are
+     * dropped and rebuilt on the next collision update.
+     */
+    public void setBroadphaseType(BroadphaseType broadphaseType) {
+        if (broadphaseType == null || broadphaseType == this.broadphaseType) return;
+        this.broadphaseType = broadphaseType;
+        if (collisionWorld != null) {
+            collisionWorld.clear();
+            collisionWorld = null;
+            spatialQuery = null;
+        }
     }
     
     public String getName() {